@@ -0,0 +1,57 @@
+package model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Ocjenjivanje po QuestionType kao u PlayingSocket-u: id odgovora u mjesto pa provjera ključa; TEXT po normalizovanom tekstu
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GradingBenchmark {
+
+    @Param({"MULTIPLE_CHOICE", "TRUE_FALSE", "TEXT"})
+    QuestionType type;
+
+    private CompiledQuiz quiz;
+    private int questionIndex;
+    private long[] submittedIds;
+    private String[] submittedTexts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        quiz = SampleQuizzes.compile(30);
+        questionIndex = -1;
+        for (int i = 0; i < quiz.getQuestionCount() && questionIndex < 0; i++) {
+            if (quiz.getQuestionType(i) == type)
+                questionIndex = i;
+        }
+
+        // mješavina tačnih i netačnih odgovora, da grananje ne bude uvijek isto
+        int first = quiz.getFirstAnswerSlot(questionIndex);
+        int answerCount = quiz.getAnswerSlotEnd(questionIndex) - first;
+        submittedIds = new long[1024];
+        submittedTexts = new String[1024];
+        for (int i = 0; i < submittedIds.length; i++) {
+            submittedIds[i] = quiz.getAnswerId(first + i % answerCount);
+            submittedTexts[i] = i % 2 == 0 ? " " + quiz.getAnswerText(first).toUpperCase(Locale.ROOT) : "pogrešno " + i;
+        }
+    }
+
+    @Benchmark
+    public boolean grade() {
+        int i = next++ & 1023;
+        if (type == QuestionType.TEXT)
+            return quiz.grade(questionIndex, -1, submittedTexts[i]);
+        return quiz.grade(questionIndex, quiz.indexOfAnswer(questionIndex, submittedIds[i]), null);
+    }
+}
@@ -0,0 +1,35 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Kvizovi u memoriji, s postavljenim id-ovima, za benchmark-e kojima treba CompiledQuiz
+public final class SampleQuizzes {
+
+    private SampleQuizzes() {
+    }
+
+    // pitanja redom prolaze kroz sve QuestionType; pitanja s izborom imaju četiri odgovora, prvi je tačan
+    public static CompiledQuiz compile(int questionCount) {
+        List<Question> questions = new ArrayList<>(questionCount);
+        QuestionType[] types = QuestionType.values();
+        long answerId = 1000;
+        for (int i = 0; i < questionCount; i++) {
+            Question question = new Question("Pitanje broj " + (i + 1) + "?", null, i + 1);
+            question.setId((long) i + 1);
+            question.setPoints(100);
+            question.setTimeLimit(30);
+            question.setQuestionType(types[i % types.length]);
+
+            int answerCount = question.getQuestionType() == QuestionType.TRUE_FALSE ? 2
+                    : question.getQuestionType() == QuestionType.TEXT ? 1 : 4;
+            for (int a = 0; a < answerCount; a++) {
+                Answer answer = new Answer("Odgovor " + (a + 1), question, a + 1, a == 0);
+                answer.setId(answerId++);
+                question.getAnswers().add(answer);
+            }
+            questions.add(question);
+        }
+        return CompiledQuiz.compile(1, 1, questions);
+    }
+}
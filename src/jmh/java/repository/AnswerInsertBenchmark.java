@@ -0,0 +1,75 @@
+package repository;
+
+import model.Answer;
+import model.ParticipantAnswer;
+import model.Question;
+import model.QuizSession;
+import model.SubmittedAnswer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import util.H2StandIn;
+import util.JPAUtil;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Redova u sekundi za nalet odgovora na kraju pitanja (H2 u MySQL modu): perRowSave je stari put, jedna
+// transakcija i jedan insert po odgovoru; saveAll je sve u jednoj transakciji, u JDBC batch-evima po 50
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {H2StandIn.URL, H2StandIn.DRIVER, H2StandIn.DIALECT, H2StandIn.QUIET})
+public class AnswerInsertBenchmark {
+
+    private static final int BURST = 500;
+
+    private final ParticipantAnswerRepository repository = new ParticipantAnswerRepository();
+    private Question question;
+    private Answer answer;
+
+    @Setup
+    public void setUp() {
+        QuizSession session = H2StandIn.seedSession("100002");
+        question = session.getQuiz().getQuestions().get(0);
+        answer = question.getAnswers().get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        JPAUtil.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void perRowSave() {
+        for (int i = 0; i < BURST; i++) {
+            ParticipantAnswer participantAnswer = new ParticipantAnswer();
+            participantAnswer.setParticipantId("participant-" + i);
+            participantAnswer.setQuestion(question);
+            participantAnswer.setAnswer(answer);
+            participantAnswer.setAnsweredAt(LocalDateTime.now());
+            participantAnswer.setPointsEarned(100);
+            repository.save(participantAnswer);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void saveAll() {
+        List<SubmittedAnswer> burst = new ArrayList<>(BURST);
+        for (int i = 0; i < BURST; i++) {
+            burst.add(new SubmittedAnswer("100002", "participant-" + i, question.getId(), answer.getId(), null, 100));
+        }
+        repository.saveAll(burst);
+    }
+}
@@ -0,0 +1,97 @@
+package service;
+
+import model.QuizParticipant;
+import model.QuizSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import repository.QuizParticipantRepository;
+import util.H2StandIn;
+import util.JPAUtil;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// findByParticipantId dok quiz_participants raste do milion redova (H2 u MySQL modu): repositoryLookup ide
+// kroz jedinstveni indeks i treba ostati isti za svaki rows, cachedLookup je aktivni učesnik iz keša servisa.
+// Stari findAll pa filter se ne mjeri: na milion redova jedan poziv ne stane u heap fork-a
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {H2StandIn.URL, H2StandIn.DRIVER, H2StandIn.DIALECT, H2StandIn.QUIET})
+public class ParticipantLookupBenchmark {
+
+    private static final String ACTIVE_ID = "active-participant";
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private final QuizParticipantRepository repository = new QuizParticipantRepository();
+    private final QuizParticipantService service = new QuizParticipantService();
+
+    @Setup
+    public void setUp() throws SQLException {
+        QuizSession session = H2StandIn.seedSession("100001");
+
+        try (Connection connection = DriverManager.getConnection(H2StandIn.JDBC_URL, H2StandIn.JDBC_USER,
+                H2StandIn.JDBC_PASSWORD)) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO quiz_participants (id, session_id, participant_name, participant_id, status, " +
+                    "joined_at, total_score, correct_answers, total_answers) VALUES (?, ?, ?, ?, ?, ?, 0, 0, 0)")) {
+                Timestamp joinedAt = new Timestamp(System.currentTimeMillis());
+                // završeni igrači ranijih kvizova i jedan aktivni; id-ovi su daleko iznad onih iz generatora
+                for (int i = 0; i <= rows; i++) {
+                    insert.setLong(1, 10_000_000L + i);
+                    insert.setLong(2, session.getId());
+                    insert.setString(3, "Igrač " + i);
+                    insert.setString(4, i < rows ? participantId(i) : ACTIVE_ID);
+                    insert.setString(5, i < rows ? "FINISHED" : "WAITING");
+                    insert.setTimestamp(6, joinedAt);
+                    insert.addBatch();
+                    if (i % 10_000 == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+        }
+
+        // prvi poziv ga učita iz baze i stavi u keš
+        service.findByParticipantId(ACTIVE_ID).orElseThrow();
+    }
+
+    @TearDown
+    public void tearDown() {
+        JPAUtil.close();
+    }
+
+    @Benchmark
+    public Optional<QuizParticipant> repositoryLookup() {
+        return repository.findByParticipantId(participantId(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public Optional<QuizParticipant> cachedLookup() {
+        return service.findByParticipantId(ACTIVE_ID);
+    }
+
+    private static String participantId(int i) {
+        return "participant-" + i;
+    }
+}
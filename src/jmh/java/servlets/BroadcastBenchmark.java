@@ -0,0 +1,71 @@
+package servlets;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Cijena pronalaska primalaca jedne poruke sobe dok broj soba raste: scanAllSockets je stari prolaz kroz
+// sve konekcije filtriran po PIN-u, registry je RoomRegistry i treba ostati isti za svaki roomCount
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BroadcastBenchmark {
+
+    private static final class Socket {
+    }
+
+    @Param({"10", "200", "2000"})
+    int roomCount;
+
+    @Param({"50"})
+    int roomSize;
+
+    private final Set<Socket> allSockets = Collections.synchronizedSet(new HashSet<>());
+    private final Map<Socket, String> socketToPin = new ConcurrentHashMap<>();
+    private final RoomRegistry<Socket> registry = new RoomRegistry<>();
+    private String targetPin;
+
+    @Setup
+    public void setUp() {
+        for (int room = 0; room < roomCount; room++) {
+            String pin = String.valueOf(100_000 + room);
+            for (int i = 0; i < roomSize; i++) {
+                Socket socket = new Socket();
+                allSockets.add(socket);
+                socketToPin.put(socket, pin);
+                registry.join(pin, socket);
+            }
+        }
+        targetPin = String.valueOf(100_000 + roomCount / 2);
+    }
+
+    @Benchmark
+    public void scanAllSockets(Blackhole blackhole) {
+        synchronized (allSockets) {
+            for (Socket socket : allSockets) {
+                if (targetPin.equals(socketToPin.get(socket)))
+                    blackhole.consume(socket);
+            }
+        }
+    }
+
+    @Benchmark
+    public void registry(Blackhole blackhole) {
+        for (Socket socket : registry.members(targetPin)) {
+            blackhole.consume(socket);
+        }
+    }
+}
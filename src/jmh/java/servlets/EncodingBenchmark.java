@@ -0,0 +1,112 @@
+package servlets;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import model.CompiledQuiz;
+import model.ParticipantScore;
+import model.SampleQuizzes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Kodiranje jedne poruke sobe, staro protiv novog: *GsonTree grade JsonObject i zovu gson.toJson kao nekad
+// PlayingSocket, ostali idu kroz FrameEncoder. Porediti gc.alloc.rate.norm (-prof gc je uključen u build.gradle)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EncodingBenchmark {
+
+    @Param({"50"})
+    int players;
+
+    private final Gson gson = new Gson();
+    private CompiledQuiz quiz;
+    private Frame[] precomputed;
+    private Map<String, ParticipantScore> scores;
+    private List<Leaderboard.Standing> top;
+
+    @Setup
+    public void setUp() {
+        quiz = SampleQuizzes.compile(10);
+        precomputed = new Frame[quiz.getQuestionCount()];
+        for (int i = 0; i < precomputed.length; i++) {
+            precomputed[i] = FrameEncoder.question(quiz, i, false);
+        }
+
+        scores = new LinkedHashMap<>();
+        Leaderboard leaderboard = new Leaderboard();
+        for (int i = 0; i < players; i++) {
+            String participantId = "participant-" + i;
+            ParticipantScore score = new ParticipantScore(participantId);
+            score.recordAnswer(true, 10 * i, 1000);
+            scores.put(participantId, score);
+            leaderboard.update(participantId, score.getTotalScore());
+        }
+        top = leaderboard.top(10);
+    }
+
+    @Benchmark
+    public String questionGsonTree() {
+        int index = 3;
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "NEXT_QUESTION");
+        message.addProperty("questionId", Long.toString(quiz.getQuestionId(index)));
+        message.addProperty("questionText", quiz.getQuestionText(index));
+        message.addProperty("questionImage", quiz.getQuestionImage(index));
+        message.addProperty("questionOrder", quiz.getQuestionOrder(index));
+        message.addProperty("timeLimit", quiz.getTimeLimit(index));
+        message.addProperty("points", quiz.getPoints(index));
+        message.addProperty("questionType", quiz.getQuestionType(index).toString());
+        message.addProperty("totalQuestions", quiz.getQuestionCount());
+        message.addProperty("currentQuestionNumber", index + 1);
+
+        JsonArray answers = new JsonArray();
+        for (int slot = quiz.getFirstAnswerSlot(index); slot < quiz.getAnswerSlotEnd(index); slot++) {
+            JsonObject answer = new JsonObject();
+            answer.addProperty("id", Long.toString(quiz.getAnswerId(slot)));
+            answer.addProperty("answerText", quiz.getAnswerText(slot));
+            answer.addProperty("answerOrder", quiz.getAnswerOrder(slot));
+            answers.add(answer);
+        }
+        message.add("answers", answers);
+        return gson.toJson(message);
+    }
+
+    @Benchmark
+    public String questionEncoder() {
+        return FrameEncoder.question(quiz, 3, false).text;
+    }
+
+    @Benchmark
+    public String questionPrecomputed() {
+        return precomputed[3].text;
+    }
+
+    @Benchmark
+    public String scoreUpdateGsonTree() {
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "SCORE_UPDATE");
+        JsonObject scoreMap = new JsonObject();
+        scores.forEach((participantId, score) -> scoreMap.addProperty(participantId, score.getTotalScore()));
+        message.add("scores", scoreMap);
+        return gson.toJson(message);
+    }
+
+    @Benchmark
+    public String scoreUpdateEncoder() {
+        Map<String, Integer> totals = new LinkedHashMap<>();
+        scores.forEach((participantId, score) -> totals.put(participantId, score.getTotalScore()));
+        return FrameEncoder.scoreUpdate(totals, top).text;
+    }
+}
@@ -0,0 +1,77 @@
+package servlets;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import model.CompiledQuiz;
+import model.SampleQuizzes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON protiv binarnog podprotokola za najčešće okvire: mjeri se dekodiranje SUBMIT_ANSWER (JSON kao u
+// PlayingSocket.onMessage), a veličine okvira, uz tick sobe od 50 igrača, setUp ispiše jednom
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WireFormatBenchmark {
+
+    private final Gson gson = new Gson();
+    private String submitJson;
+    private ByteBuffer submitBinary;
+
+    @Setup
+    public void setUp() {
+        // kao quizPlayingUser.js: participantId i timeRemaining idu u JSON, a server ih ne čita
+        submitJson = "{\"type\":\"SUBMIT_ANSWER\",\"questionId\":\"1042\",\"participantId\":" +
+                "\"3f2b8c1e-5a7d-4e29-9b61-0c8d2f4a7e15\",\"timeRemaining\":17,\"answerId\":\"20391\"}";
+        submitBinary = ByteBuffer.allocate(18).put(BinaryFrames.SUBMIT_ANSWER).putLong(1042).put((byte) 1).putLong(20391);
+        submitBinary.flip();
+
+        CompiledQuiz quiz = SampleQuizzes.compile(10);
+        Frame answerResult = FrameEncoder.answerResult(quiz, 0, true, 100);
+        List<TickBatch.Answered> answered = new ArrayList<>();
+        List<Leaderboard.Standing> changes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String participantId = "3f2b8c1e-5a7d-4e29-9b61-0c8d2f4a" + (1000 + i);
+            answered.add(new TickBatch.Answered(participantId, i % 3 == 0));
+            changes.add(new Leaderboard.Standing(participantId, 100 * (50 - i), i + 1));
+        }
+        Frame tick = FrameEncoder.tick("123456", answered, changes);
+
+        printSize("SUBMIT_ANSWER", submitJson, submitBinary);
+        printSize("ANSWER_RESULT", answerResult.text, answerResult.binary);
+        printSize("TICK (50 players)", tick.text, tick.binary);
+    }
+
+    @Benchmark
+    public Object decodeSubmitJson() {
+        JsonObject json = gson.fromJson(submitJson, JsonObject.class);
+        String type = json.has("type") ? json.get("type").getAsString() : "";
+        if (!"SUBMIT_ANSWER".equals(type))
+            return null;
+        return new BinaryFrames.Submission(Long.parseLong(json.get("questionId").getAsString()),
+                json.has("answerId") ? Long.valueOf(json.get("answerId").getAsString()) : null,
+                json.has("text") ? json.get("text").getAsString() : null);
+    }
+
+    @Benchmark
+    public Object decodeSubmitBinary() {
+        ByteBuffer frame = submitBinary.duplicate();
+        return BinaryFrames.opcode(frame) == BinaryFrames.SUBMIT_ANSWER ? BinaryFrames.decodeSubmitAnswer(frame) : null;
+    }
+
+    private static void printSize(String type, String json, ByteBuffer binary) {
+        System.out.printf("%s: %d bytes JSON, %d bytes binary%n", type,
+                json.getBytes(StandardCharsets.UTF_8).length, binary.remaining());
+    }
+}
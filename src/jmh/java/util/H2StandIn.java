@@ -0,0 +1,68 @@
+package util;
+
+import jakarta.persistence.EntityManager;
+import model.Answer;
+import model.Question;
+import model.Quiz;
+import model.QuizSession;
+import model.User;
+
+// H2 u memoriji (MySQL mod) umjesto baze za benchmark-e; konstante idu u @Fork(jvmArgsAppend = ...),
+// pa svaki fork kreće od prazne sheme koju Hibernate napravi iz entiteta
+public final class H2StandIn {
+
+    // ista baza koju koristi JPAUtil, za punjenje tabela preko JDBC-a
+    public static final String JDBC_URL = "jdbc:h2:mem:trivia;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    // korisnik i lozinka ostaju iz persistence.xml, H2 ih prihvata pri stvaranju baze
+    public static final String JDBC_USER = "anis";
+    public static final String JDBC_PASSWORD = "anis";
+
+    public static final String URL = "-Dtrivia.db.url=" + JDBC_URL;
+    public static final String DRIVER = "-Dtrivia.db.driver=org.h2.Driver";
+    public static final String DIALECT = "-Dtrivia.db.dialect=org.hibernate.dialect.H2Dialect";
+    public static final String QUIET = "-Dtrivia.db.showSql=false";
+
+    private H2StandIn() {
+    }
+
+    // korisnik, kviz s jednim pitanjem i dva odgovora, i sesija za taj kviz
+    public static QuizSession seedSession(String sessionPin) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            User user = new User();
+            user.setUsername("bench-" + sessionPin);
+            user.setEmail("bench-" + sessionPin + "@example.com");
+            user.setPasswordHash("x");
+            em.persist(user);
+
+            Quiz quiz = new Quiz();
+            quiz.setCreator(user);
+            quiz.setTitle("Benchmark");
+            em.persist(quiz);
+
+            Question question = new Question("Pitanje?", quiz, 1);
+            em.persist(question);
+            Answer correct = new Answer("Tačno", question, 1, true);
+            Answer wrong = new Answer("Netačno", question, 2, false);
+            em.persist(correct);
+            em.persist(wrong);
+            question.getAnswers().add(correct);
+            question.getAnswers().add(wrong);
+            quiz.getQuestions().add(question);
+
+            QuizSession session = new QuizSession();
+            session.setQuiz(quiz);
+            session.setAdmin(user);
+            session.setSessionPin(sessionPin);
+            em.persist(session);
+            em.getTransaction().commit();
+            return session;
+        } catch (Exception e) {
+            em.getTransaction().rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+}
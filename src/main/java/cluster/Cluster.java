@@ -0,0 +1,186 @@
+package cluster;
+
+import util.AppConfig;
+import util.WheelTimer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Pogled ovog čvora na klaster: ko drži koji PIN i sabirnica preko koje čvorovi razgovaraju. Čvor se javlja
+// heartbeat-om sa sobama koje drži; čvor koji se prestane javljati ispada iz prstena i PIN-ovi prelaze ostalima.
+// Bez trivia.cluster.nodes aplikacija je jedan čvor koji drži sve PIN-ove
+public final class Cluster {
+
+    static final String HEARTBEAT_CHANNEL = "cluster.heartbeat";
+
+    private static final long HEARTBEAT_MS = AppConfig.getLong("trivia.cluster.heartbeatMs", 2000);
+    private static final long CLAIM_MS = AppConfig.getLong("trivia.cluster.claimMs", 60000);
+    private static final List<Supplier<Collection<String>>> roomSources = new CopyOnWriteArrayList<>();
+    // PIN-ovi koje čvor drži iako ih nijedan izvor trenutno nema, npr. između čekaonice i igre; vrijednost je rok
+    private static final Map<String, Long> claims = new ConcurrentHashMap<>();
+
+    private static final RoomOwnership ownership = createOwnership();
+    private static final EventBus bus = createBus();
+    private static final WheelTimer.Timeout heartbeat;
+
+    static {
+        bus.subscribe(HEARTBEAT_CHANNEL, Cluster::onHeartbeat);
+        heartbeat = ownership.isClustered()
+                ? WheelTimer.shared().scheduleAtFixedRate(Cluster::sendHeartbeat, 0, HEARTBEAT_MS, TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+    private Cluster() {
+    }
+
+    // čita postavke i pokreće heartbeat; smije se pozvati više puta
+    public static void start() {
+        System.out.println("Cluster: čvor " + ownership.localNode().getId());
+    }
+
+    public static void shutdown() {
+        if (heartbeat != null)
+            heartbeat.cancel();
+        bus.close();
+    }
+
+    public static RoomOwnership ownership() {
+        return ownership;
+    }
+
+    public static EventBus bus() {
+        return bus;
+    }
+
+    // izvor PIN-ova soba na ovom čvoru, javljaju se u svakom heartbeat-u
+    public static void registerRooms(Supplier<Collection<String>> rooms) {
+        roomSources.add(rooms);
+    }
+
+    // PIN ostaje ovdje neko vrijeme i bez sobe, da igrači iz čekaonice ne odu na drugi čvor
+    public static void claim(String sessionPin) {
+        claims.put(sessionPin, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLAIM_MS));
+    }
+
+    // true ako PIN drži soba ili claim na ovom čvoru
+    public static boolean holdsLocally(String sessionPin) {
+        Long deadline = claims.get(sessionPin);
+        if (deadline != null) {
+            if (System.nanoTime() - deadline < 0)
+                return true;
+            claims.remove(sessionPin, deadline);
+        }
+        for (Supplier<Collection<String>> source : roomSources) {
+            if (source.get().contains(sessionPin))
+                return true;
+        }
+        return false;
+    }
+
+    // adresa na koju se klijent mora spojiti, ili null ako je PIN ovog čvora
+    public static String redirectUrl(String sessionPin, URI requestUri) {
+        RoomOwnership.Node owner = ownership.ownerOf(sessionPin);
+        if (owner == ownership.localNode() || owner.getUrl() == null)
+            return null;
+
+        String query = requestUri.getRawQuery();
+        return owner.getUrl() + requestUri.getRawPath() + (query != null ? "?" + query : "");
+    }
+
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("nodeId", ownership.localNode().getId());
+        metrics.put("liveNodes", ownership.liveNodes());
+        metrics.put("claims", claims.size());
+        metrics.put("bus", bus.snapshot());
+        return metrics;
+    }
+
+    // poruka: id čvora, tab, PIN-ovi soba koje drži odvojeni zarezom
+    private static void sendHeartbeat() {
+        Set<String> held = new HashSet<>();
+        for (Supplier<Collection<String>> source : roomSources) {
+            held.addAll(source.get());
+        }
+        long now = System.nanoTime();
+        claims.entrySet().removeIf(claim -> now - claim.getValue() >= 0);
+        held.addAll(claims.keySet());
+
+        StringBuilder message = new StringBuilder(ownership.localNode().getId()).append('\t');
+        message.append(String.join(",", held));
+        bus.publish(HEARTBEAT_CHANNEL, message.toString());
+        ownership.expire();
+    }
+
+    private static void onHeartbeat(String message) {
+        int tab = message.indexOf('\t');
+        if (tab < 0)
+            return;
+        Set<String> rooms = new HashSet<>();
+        for (String pin : message.substring(tab + 1).split(",")) {
+            if (!pin.isEmpty())
+                rooms.add(pin);
+        }
+        ownership.heartbeat(message.substring(0, tab), rooms);
+    }
+
+    // trivia.cluster.nodes: id=adresa parovi odvojeni zarezom, npr. node-1=ws://localhost:8080
+    private static RoomOwnership createOwnership() {
+        String localId = AppConfig.getString("trivia.cluster.nodeId", "node-1");
+        List<RoomOwnership.Node> nodes = new ArrayList<>();
+        RoomOwnership.Node local = new RoomOwnership.Node(localId, null);
+
+        for (String entry : AppConfig.getString("trivia.cluster.nodes", "").split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0)
+                continue;
+            RoomOwnership.Node node = new RoomOwnership.Node(entry.substring(0, separator).trim(),
+                    entry.substring(separator + 1).trim());
+            if (node.getId().equals(localId))
+                local = node;
+            else
+                nodes.add(node);
+        }
+
+        return new RoomOwnership(local, nodes, AppConfig.getInt("trivia.cluster.virtualNodes", 128),
+                AppConfig.getLong("trivia.cluster.nodeTimeoutMs", 3 * HEARTBEAT_MS), Cluster::holdsLocally);
+    }
+
+    private static EventBus createBus() {
+        if (!"tcp".equalsIgnoreCase(AppConfig.getString("trivia.cluster.bus", "local")))
+            return new InProcessEventBus();
+
+        List<InetSocketAddress> peers = new ArrayList<>();
+        for (String peer : AppConfig.getString("trivia.cluster.bus.peers", "").split(",")) {
+            peer = peer.trim();
+            if (peer.isEmpty())
+                continue;
+            int colon = peer.lastIndexOf(':');
+            peers.add(colon < 0
+                    ? new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(peer))
+                    : new InetSocketAddress(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1))));
+        }
+
+        try {
+            return new TcpEventBus(AppConfig.getInt("trivia.cluster.bus.port", 7600), peers,
+                    AppConfig.getInt("trivia.cluster.bus.queueCapacity", 10000));
+        } catch (IOException e) {
+            // bez sabirnice čvor i dalje radi, samo ne čuje ostale i sam preuzima njihove sobe nakon isteka
+            System.err.println("Cluster: TCP sabirnica nije pokrenuta: " + e.getMessage());
+            return new InProcessEventBus();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package cluster;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Mali tekstualni događaji između čvorova; svaki pretplatnik kanala, i na čvoru izdavača, dobija svaki događaj.
+// Isporuka nije garantovana (čvor koji je nedostupan ga gubi), a slušaoci rade na nitima sabirnice,
+// pa moraju biti kratki i thread-safe
+public interface EventBus {
+
+    void publish(String channel, String message);
+
+    void subscribe(String channel, Consumer<String> listener);
+
+    Map<String, Object> snapshot();
+
+    void close();
+}
@@ -0,0 +1,57 @@
+package cluster;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Sabirnica unutar jednog JVM-a; događaji se isporučuju na niti izdavača
+public final class InProcessEventBus implements EventBus {
+
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Override
+    public void publish(String channel, String message) {
+        published.increment();
+        deliver(subscribers, channel, message, failed);
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        subscribers.computeIfAbsent(channel, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public Map<String, Object> snapshot() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("type", "local");
+        metrics.put("published", published.sum());
+        metrics.put("failedListeners", failed.sum());
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        subscribers.clear();
+    }
+
+    // greška jednog slušaoca ne smije spriječiti isporuku ostalima
+    static void deliver(Map<String, List<Consumer<String>>> subscribers, String channel, String message, LongAdder failed) {
+        List<Consumer<String>> listeners = subscribers.get(channel);
+        if (listeners == null)
+            return;
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(message);
+            } catch (RuntimeException e) {
+                failed.increment();
+                System.err.println("Event bus listener failed on " + channel + ": " + e.getMessage());
+            }
+        }
+    }
+}
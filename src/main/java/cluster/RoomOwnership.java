@@ -0,0 +1,156 @@
+package cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// Koji čvor drži PIN: konzistentni heš prsten živih čvorova s virtuelnim tačkama, pa dolazak ili odlazak čvora
+// pomjera samo susjedne PIN-ove. Soba koja već igra ostaje gdje jeste, i kad bi je prsten sada stavio drugdje
+public final class RoomOwnership {
+
+    // čvor i ws:// ili wss:// adresa na koju se spajaju njegovi klijenti
+    public static final class Node {
+        private final String id;
+        private final String url;
+
+        public Node(String id, String url) {
+            this.id = id;
+            this.url = url;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+    }
+
+    private final Node local;
+    private final Map<String, Node> nodes;
+    private final int virtualNodes;
+    private final long nodeTimeoutNanos;
+    private final Predicate<String> heldLocally;
+
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> heldRooms = new ConcurrentHashMap<>();
+    private volatile Set<String> live;
+    private volatile NavigableMap<Long, Node> ring;
+
+    public RoomOwnership(Node local, Collection<Node> nodes, int virtualNodes, long nodeTimeoutMillis,
+            Predicate<String> heldLocally) {
+        this.local = local;
+        this.heldLocally = heldLocally;
+        this.nodes = new ConcurrentHashMap<>();
+        for (Node node : nodes) {
+            this.nodes.put(node.id, node);
+        }
+        this.nodes.put(local.id, local);
+        this.virtualNodes = Math.max(1, virtualNodes);
+        this.nodeTimeoutNanos = nodeTimeoutMillis * 1_000_000L;
+
+        // dok se ne čuju, ostali čvorovi se smatraju živim, da se sobe ne sele pri zajedničkom startu
+        long now = System.nanoTime();
+        for (String id : this.nodes.keySet()) {
+            lastSeen.put(id, now);
+        }
+        rebuild(Set.copyOf(this.nodes.keySet()));
+    }
+
+    public Node localNode() {
+        return local;
+    }
+
+    public boolean isClustered() {
+        return nodes.size() > 1;
+    }
+
+    public Node ownerOf(String sessionPin) {
+        // vlastita soba se nikad ne šalje dalje, inače bi se klijenti vrtjeli između dva čvora
+        if (heldLocally.test(sessionPin))
+            return local;
+
+        Set<String> alive = live;
+        for (Map.Entry<String, Set<String>> entry : heldRooms.entrySet()) {
+            if (alive.contains(entry.getKey()) && entry.getValue().contains(sessionPin))
+                return nodes.get(entry.getKey());
+        }
+
+        NavigableMap<Long, Node> points = ring;
+        Map.Entry<Long, Node> owner = points.ceilingEntry(hash(sessionPin));
+        return owner != null ? owner.getValue() : points.firstEntry().getValue();
+    }
+
+    public boolean isLocal(String sessionPin) {
+        return ownerOf(sessionPin) == local;
+    }
+
+    // čvor je živ i drži ove sobe
+    public void heartbeat(String nodeId, Set<String> rooms) {
+        if (!nodes.containsKey(nodeId) || nodeId.equals(local.id))
+            return;
+        lastSeen.put(nodeId, System.nanoTime());
+        heldRooms.put(nodeId, rooms);
+        if (!live.contains(nodeId))
+            expire();
+    }
+
+    // izbacuje iz prstena čvorove koji se nisu javili na vrijeme
+    public synchronized void expire() {
+        long now = System.nanoTime();
+        Set<String> alive = new HashSet<>();
+        alive.add(local.id);
+        for (Map.Entry<String, Long> entry : lastSeen.entrySet()) {
+            if (now - entry.getValue() <= nodeTimeoutNanos)
+                alive.add(entry.getKey());
+        }
+        if (!alive.equals(live)) {
+            rebuild(alive);
+        }
+    }
+
+    public List<String> liveNodes() {
+        List<String> alive = new ArrayList<>(live);
+        Collections.sort(alive);
+        return alive;
+    }
+
+    private synchronized void rebuild(Set<String> alive) {
+        NavigableMap<Long, Node> points = new TreeMap<>();
+        for (String id : alive) {
+            Node node = nodes.get(id);
+            for (int i = 0; i < virtualNodes; i++) {
+                points.put(hash(id + "#" + i), node);
+            }
+        }
+        ring = points;
+        live = Set.copyOf(alive);
+        System.out.println("Cluster: živi čvorovi " + liveNodes());
+    }
+
+    // String.hashCode loše raspoređuje kratke ključeve, pa se uzima prvih 8 bajtova MD5
+    static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (digest[i] & 0xFF);
+            }
+            return value;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Sabirnica između JVM-ova na istoj mašini: svaki čvor sluša na loopback portu i drži jednu vezu prema svakom peer-u;
+// okvir je kanal pa poruka, svaki kao int32 dužina i UTF-8. Objava samo stavlja događaj u red, a jedna nit ga šalje,
+// pa spor peer ne blokira izdavača. Pun red i nedostupan peer (ponovni pokušaj najviše svake RECONNECT_DELAY_MS) gube događaj
+public final class TcpEventBus implements EventBus {
+
+    private static final int MAX_FRAME_BYTES = 1 << 20;
+    private static final int CONNECT_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private static final class Envelope {
+        final byte[] channel;
+        final byte[] message;
+
+        Envelope(String channel, String message) {
+            this.channel = channel.getBytes(StandardCharsets.UTF_8);
+            this.message = message.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Peer {
+        final InetSocketAddress address;
+        Socket socket;
+        DataOutputStream out;
+        long nextAttemptAt;
+
+        Peer(InetSocketAddress address) {
+            this.address = address;
+        }
+    }
+
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+    private final BlockingQueue<Envelope> outbox;
+    private final List<Peer> peers = new CopyOnWriteArrayList<>();
+    private final Map<Socket, Thread> readers = new ConcurrentHashMap<>();
+    private final ServerSocket server;
+    private final Thread acceptor;
+    private final Thread sender;
+    private final AtomicInteger readerCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public TcpEventBus(int port, List<InetSocketAddress> peerAddresses, int queueCapacity) throws IOException {
+        this.outbox = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        for (InetSocketAddress address : peerAddresses) {
+            peers.add(new Peer(address));
+        }
+
+        server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::acceptLoop, "event-bus-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        sender = new Thread(this::sendLoop, "event-bus-sender");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        published.increment();
+        InProcessEventBus.deliver(subscribers, channel, message, failed);
+        if (!peers.isEmpty() && !outbox.offer(new Envelope(channel, message)))
+            dropped.increment();
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        subscribers.computeIfAbsent(channel, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public Map<String, Object> snapshot() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("type", "tcp");
+        metrics.put("port", server.getLocalPort());
+        metrics.put("peers", peers.size());
+        metrics.put("connectedPeers", peers.stream().filter(peer -> peer.out != null).count());
+        metrics.put("incomingConnections", readers.size());
+        metrics.put("queued", outbox.size());
+        metrics.put("published", published.sum());
+        metrics.put("sent", sent.sum());
+        metrics.put("received", received.sum());
+        metrics.put("dropped", dropped.sum());
+        metrics.put("failedListeners", failed.sum());
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeQuietly(server);
+        // nit blokirana u accept tek na izlasku stvarno oslobodi port, pa se čeka da bi se čvor mogao odmah ponovo pokrenuti
+        try {
+            acceptor.join(CONNECT_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sender.interrupt();
+        for (Socket socket : readers.keySet()) {
+            closeQuietly(socket);
+        }
+        for (Peer peer : peers) {
+            disconnect(peer);
+        }
+        subscribers.clear();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                Thread reader = new Thread(() -> readLoop(socket), "event-bus-reader-" + readerCount.incrementAndGet());
+                reader.setDaemon(true);
+                readers.put(socket, reader);
+                reader.start();
+            } catch (IOException e) {
+                if (!closed)
+                    System.err.println("Event bus accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void readLoop(Socket socket) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (!closed) {
+                String channel = readString(in);
+                String message = readString(in);
+                received.increment();
+                InProcessEventBus.deliver(subscribers, channel, message, failed);
+            }
+        } catch (IOException e) {
+            // peer se ugasio ili je zatvorio vezu; ponovo će se spojiti sam
+        } finally {
+            readers.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private void sendLoop() {
+        while (!closed) {
+            Envelope envelope;
+            try {
+                envelope = outbox.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (Peer peer : peers) {
+                send(peer, envelope);
+            }
+        }
+    }
+
+    private void send(Peer peer, Envelope envelope) {
+        if (peer.out == null && !connect(peer)) {
+            dropped.increment();
+            return;
+        }
+        try {
+            peer.out.writeInt(envelope.channel.length);
+            peer.out.write(envelope.channel);
+            peer.out.writeInt(envelope.message.length);
+            peer.out.write(envelope.message);
+            peer.out.flush();
+            sent.increment();
+        } catch (IOException e) {
+            dropped.increment();
+            disconnect(peer);
+            peer.nextAttemptAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RECONNECT_DELAY_MS);
+        }
+    }
+
+    private boolean connect(Peer peer) {
+        if (System.nanoTime() - peer.nextAttemptAt < 0)
+            return false;
+        try {
+            Socket socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(peer.address, CONNECT_TIMEOUT_MS);
+            peer.socket = socket;
+            peer.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            return true;
+        } catch (IOException e) {
+            peer.nextAttemptAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RECONNECT_DELAY_MS);
+            return false;
+        }
+    }
+
+    private static void disconnect(Peer peer) {
+        closeQuietly(peer.socket);
+        peer.socket = null;
+        peer.out = null;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME_BYTES)
+            throw new IOException("Invalid event bus frame length: " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null)
+            return;
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+        }
+    }
+}
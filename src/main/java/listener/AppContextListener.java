@@ -1,9 +1,16 @@
 package listener;
 
+import cluster.Cluster;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
+import service.ScoreWriter;
+import service.SnapshotWriter;
+import servlets.PlayingSocket;
+import util.DbExecutor;
+import util.IdGenerators;
 import util.JPAUtil;
+import util.WheelTimer;
 
 @WebListener
 public class AppContextListener implements ServletContextListener {
@@ -14,7 +21,10 @@ public class AppContextListener implements ServletContextListener {
         
         try {
             JPAUtil.getEntityManager().close();
+            IdGenerators.seed();
             System.out.println("JPA successfully initialized");
+            Cluster.start();
+            PlayingSocket.restoreRooms();
         } catch (Exception e) {
             System.err.println("Error initializing JPA: " + e.getMessage());
             e.printStackTrace();
@@ -24,6 +34,11 @@ public class AppContextListener implements ServletContextListener {
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
         System.out.println("Aplikacija se gasi...");
+        Cluster.shutdown();
+        WheelTimer.shared().stop();
+        DbExecutor.shutdown();
+        ScoreWriter.getInstance().shutdown();
+        SnapshotWriter.getInstance().shutdown();
         JPAUtil.close();
     }
 }
\ No newline at end of file
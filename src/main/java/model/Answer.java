@@ -1,15 +1,21 @@
 package model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "answers")
 public class Answer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "answers_id")
+    @TableGenerator(name = "answers_id", table = "id_generators", pkColumnName = "entity",
+            valueColumnName = "next_val", pkColumnValue = "answers", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,163 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Nepromjenjiva kopija pitanja i odgovora kviza bez entiteta, gradi se jednom po verziji sadržaja i dijele je
+// sve igre tog kviza. Odgovori svih pitanja su u jednom nizu: pitanje i ima mjesta answerStart[i]..answerStart[i + 1].
+// Ključ odgovora je samo ovdje, pa je ocjenjivanje jedno traženje u mapi i provjera bita ili skupa
+public final class CompiledQuiz {
+
+    private final long quizId;
+    private final long version;
+
+    private final long[] questionIds;
+    private final String[] questionTexts;
+    private final String[] questionImages;
+    private final int[] questionOrders;
+    private final int[] points;
+    private final int[] timeLimits;
+    private final QuestionType[] types;
+    private final Map<Long, Integer> questionIndex;
+
+    private final int[] answerStart;
+    private final long[] answerIds;
+    private final String[] answerTexts;
+    private final int[] answerOrders;
+    private final BitSet correctAnswers;
+    private final Map<Long, Integer> answerIndex;
+    private final int[] correctSlot;
+    private final List<Set<String>> correctTexts;
+
+    private CompiledQuiz(long quizId, long version, List<Question> questions) {
+        this.quizId = quizId;
+        this.version = version;
+
+        int questionCount = questions.size();
+        int answerCount = 0;
+        for (Question question : questions) {
+            answerCount += question.getAnswers().size();
+        }
+
+        questionIds = new long[questionCount];
+        questionTexts = new String[questionCount];
+        questionImages = new String[questionCount];
+        questionOrders = new int[questionCount];
+        points = new int[questionCount];
+        timeLimits = new int[questionCount];
+        types = new QuestionType[questionCount];
+        answerStart = new int[questionCount + 1];
+        answerIds = new long[answerCount];
+        answerTexts = new String[answerCount];
+        answerOrders = new int[answerCount];
+        correctAnswers = new BitSet(answerCount);
+        correctSlot = new int[questionCount];
+        correctTexts = new ArrayList<>(questionCount);
+
+        Map<Long, Integer> index = new HashMap<>(questionCount * 2);
+        Map<Long, Integer> answers = new HashMap<>(answerCount * 2);
+        int slot = 0;
+        for (int i = 0; i < questionCount; i++) {
+            Question question = questions.get(i);
+            questionIds[i] = question.getId();
+            questionTexts[i] = question.getQuestionText();
+            questionImages[i] = question.getQuestionImage();
+            questionOrders[i] = valueOrZero(question.getQuestionOrder());
+            points[i] = valueOrZero(question.getPoints());
+            timeLimits[i] = valueOrZero(question.getTimeLimit());
+            types[i] = question.getQuestionType();
+            index.put(question.getId(), i);
+
+            answerStart[i] = slot;
+            correctSlot[i] = -1;
+            Set<String> texts = new HashSet<>();
+            for (Answer answer : question.getAnswers()) {
+                answerIds[slot] = answer.getId();
+                answerTexts[slot] = answer.getAnswerText();
+                answerOrders[slot] = valueOrZero(answer.getAnswerOrder());
+                answers.put(answer.getId(), slot);
+                if (Boolean.TRUE.equals(answer.getIsCorrect())) {
+                    correctAnswers.set(slot);
+                    if (correctSlot[i] < 0)
+                        correctSlot[i] = slot;
+                    if (answer.getAnswerText() != null)
+                        texts.add(normalize(answer.getAnswerText()));
+                }
+                slot++;
+            }
+            correctTexts.add(texts);
+        }
+        answerStart[questionCount] = slot;
+        questionIndex = Collections.unmodifiableMap(index);
+        answerIndex = Collections.unmodifiableMap(answers);
+    }
+
+    // odgovori pitanja moraju biti učitani; pitanja se ovdje pročitaju i više se ne koriste
+    public static CompiledQuiz compile(long quizId, long version, List<Question> questions) {
+        List<Question> ordered = new ArrayList<>(questions);
+        ordered.sort(Comparator.comparingInt(q -> valueOrZero(q.getQuestionOrder())));
+        return new CompiledQuiz(quizId, version, ordered);
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    public long getQuizId() { return quizId; }
+    public long getVersion() { return version; }
+
+    public int getQuestionCount() { return questionIds.length; }
+
+    // redni broj pitanja u igri, ili -1 ako pitanje nije iz ovog kviza
+    public int indexOfQuestion(long questionId) {
+        Integer index = questionIndex.get(questionId);
+        return index != null ? index : -1;
+    }
+
+    // mjesto odgovora unutar pitanja, ili -1 ako odgovor ne pripada pitanju
+    public int indexOfAnswer(int questionIndex, long answerId) {
+        Integer slot = answerIndex.get(answerId);
+        if (slot == null || slot < answerStart[questionIndex] || slot >= answerStart[questionIndex + 1])
+            return -1;
+        return slot;
+    }
+
+    // answerSlot je -1 kad odgovor nije izabran; textAnswer se gleda samo kod TEXT pitanja
+    public boolean grade(int questionIndex, int answerSlot, String textAnswer) {
+        if (types[questionIndex] == QuestionType.TEXT) {
+            return textAnswer != null && correctTexts.get(questionIndex).contains(normalize(textAnswer));
+        }
+        return answerSlot >= 0 && correctAnswers.get(answerSlot);
+    }
+
+    // mjesto prvog tačnog odgovora, ili -1 ako nijedan nije označen kao tačan
+    public int getCorrectAnswerSlot(int questionIndex) { return correctSlot[questionIndex]; }
+
+    public long getQuestionId(int questionIndex) { return questionIds[questionIndex]; }
+    public String getQuestionText(int questionIndex) { return questionTexts[questionIndex]; }
+    public String getQuestionImage(int questionIndex) { return questionImages[questionIndex]; }
+    public int getQuestionOrder(int questionIndex) { return questionOrders[questionIndex]; }
+    public int getPoints(int questionIndex) { return points[questionIndex]; }
+    public int getTimeLimit(int questionIndex) { return timeLimits[questionIndex]; }
+    public QuestionType getQuestionType(int questionIndex) { return types[questionIndex]; }
+
+    public int getFirstAnswerSlot(int questionIndex) { return answerStart[questionIndex]; }
+    public int getAnswerSlotEnd(int questionIndex) { return answerStart[questionIndex + 1]; }
+
+    public long getAnswerId(int slot) { return answerIds[slot]; }
+    public String getAnswerText(int slot) { return answerTexts[slot]; }
+    public int getAnswerOrder(int slot) { return answerOrders[slot]; }
+    public boolean isCorrect(int slot) { return correctAnswers.get(slot); }
+}
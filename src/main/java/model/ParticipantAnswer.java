@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 @Table(name = "participant_answers")
 public class ParticipantAnswer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "participant_answers_id")
+    @TableGenerator(name = "participant_answers_id", table = "id_generators", pkColumnName = "entity",
+            valueColumnName = "next_val", pkColumnValue = "participant_answers", allocationSize = 50)
     private Long id;
     
     @Column(name = "participant_id", nullable = false)
@@ -0,0 +1,71 @@
+package model;
+
+public class ParticipantScore {
+
+    private final String participantId;
+    private int totalScore;
+    private int correctAnswers;
+    private int totalAnswers;
+    private double averageResponseMillis;
+
+    public ParticipantScore(String participantId) {
+        this.participantId = participantId;
+    }
+
+    private ParticipantScore(ParticipantScore other) {
+        this.participantId = other.participantId;
+        this.totalScore = other.totalScore;
+        this.correctAnswers = other.correctAnswers;
+        this.totalAnswers = other.totalAnswers;
+        this.averageResponseMillis = other.averageResponseMillis;
+    }
+
+    // stanje iz snimka sobe, nakon ponovnog pokretanja servera
+    public static ParticipantScore restore(String participantId, int totalScore, int correctAnswers, int totalAnswers,
+            double averageResponseMillis) {
+        ParticipantScore score = new ParticipantScore(participantId);
+        score.totalScore = totalScore;
+        score.correctAnswers = correctAnswers;
+        score.totalAnswers = totalAnswers;
+        score.averageResponseMillis = averageResponseMillis;
+        return score;
+    }
+
+    public synchronized void recordAnswer(boolean correct, int points, long responseMillis) {
+        totalAnswers++;
+        if (correct) {
+            correctAnswers++;
+            totalScore += points;
+        }
+        // tekući prosjek, bez čuvanja i ponovnog čitanja svih odgovora
+        averageResponseMillis += (responseMillis - averageResponseMillis) / totalAnswers;
+    }
+
+    public synchronized ParticipantScore snapshot() {
+        return new ParticipantScore(this);
+    }
+
+    public String getParticipantId() {
+        return participantId;
+    }
+
+    public synchronized int getTotalScore() {
+        return totalScore;
+    }
+
+    public synchronized int getCorrectAnswers() {
+        return correctAnswers;
+    }
+
+    public synchronized int getTotalAnswers() {
+        return totalAnswers;
+    }
+
+    public synchronized double getAverageResponseMillis() {
+        return averageResponseMillis;
+    }
+
+    public synchronized double getAverageResponseSeconds() {
+        return averageResponseMillis / 1000.0;
+    }
+}
@@ -1,15 +1,21 @@
 package model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "questions")
 public class Question {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "questions_id")
+    @TableGenerator(name = "questions_id", table = "id_generators", pkColumnName = "entity",
+            valueColumnName = "next_val", pkColumnValue = "questions", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -43,6 +49,7 @@ public class Question {
     
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @OrderBy("answerOrder ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Answer> answers = new ArrayList<>();
     
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 public class QuizParticipant {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "quiz_participants_id")
+    @TableGenerator(name = "quiz_participants_id", table = "id_generators", pkColumnName = "entity",
+            valueColumnName = "next_val", pkColumnValue = "quiz_participants", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
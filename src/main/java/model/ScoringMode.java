@@ -0,0 +1,17 @@
+package model;
+
+public enum ScoringMode {
+    FLAT,
+    TIME_WEIGHTED;
+
+    // bodovi za tačan odgovor; u TIME_WEIGHTED modu linearno padaju od punih do minSharePercent na isteku vremena
+    public int award(int points, long responseMillis, int timeLimitSeconds, int minSharePercent) {
+        if (this == FLAT || timeLimitSeconds <= 0)
+            return points;
+
+        long limitMillis = timeLimitSeconds * 1000L;
+        long elapsed = Math.max(0, Math.min(responseMillis, limitMillis));
+        long decay = (long) points * (100 - minSharePercent) * elapsed / (100L * limitMillis);
+        return (int) (points - decay);
+    }
+}
@@ -0,0 +1,35 @@
+package model;
+
+import java.time.LocalDateTime;
+
+// Odgovor primljen tokom igre koji čeka upis u participant_answers; drži samo id-ove,
+// pa se tokom igre ne učitava nijedan entitet
+public final class SubmittedAnswer {
+
+    private final String sessionPin;
+    private final String participantId;
+    private final long questionId;
+    private final Long answerId;
+    private final String textAnswer;
+    private final int pointsEarned;
+    private final LocalDateTime answeredAt;
+
+    public SubmittedAnswer(String sessionPin, String participantId, long questionId, Long answerId, String textAnswer,
+            int pointsEarned) {
+        this.sessionPin = sessionPin;
+        this.participantId = participantId;
+        this.questionId = questionId;
+        this.answerId = answerId;
+        this.textAnswer = textAnswer;
+        this.pointsEarned = pointsEarned;
+        this.answeredAt = LocalDateTime.now();
+    }
+
+    public String getSessionPin() { return sessionPin; }
+    public String getParticipantId() { return participantId; }
+    public long getQuestionId() { return questionId; }
+    public Long getAnswerId() { return answerId; }
+    public String getTextAnswer() { return textAnswer; }
+    public int getPointsEarned() { return pointsEarned; }
+    public LocalDateTime getAnsweredAt() { return answeredAt; }
+}
@@ -20,6 +20,7 @@ public class AnswerRepository {
                 answer = em.merge(answer);
             }
             em.getTransaction().commit();
+            JPAUtil.evictQuizContent();
             return answer;
         } catch (Exception e) {
             em.getTransaction().rollback();
@@ -72,6 +73,7 @@ public class AnswerRepository {
             em.getTransaction().begin();
             em.remove(em.contains(answer) ? answer : em.merge(answer));
             em.getTransaction().commit();
+            JPAUtil.evictQuizContent();
         } catch (Exception e) {
             em.getTransaction().rollback();
             throw e;
@@ -88,6 +90,7 @@ public class AnswerRepository {
                 .setParameter("question", question)
                 .executeUpdate();
             em.getTransaction().commit();
+            JPAUtil.evictQuizContent();
         } catch (Exception e) {
             em.getTransaction().rollback();
             throw e;
@@ -108,6 +111,7 @@ public class AnswerRepository {
                 }
             }
             em.getTransaction().commit();
+            JPAUtil.evictQuizContent();
             return answers;
         } catch (Exception e) {
             em.getTransaction().rollback();
@@ -3,8 +3,10 @@ package repository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
+import model.Answer;
 import model.ParticipantAnswer;
 import model.Question;
+import model.SubmittedAnswer;
 import util.JPAUtil;
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +32,32 @@ public class ParticipantAnswerRepository {
         }
     }
     
+    public void saveAll(List<SubmittedAnswer> submittedAnswers) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            for (SubmittedAnswer submitted : submittedAnswers) {
+                // getReference ne učitava pitanje/odgovor, treba nam samo strani ključ
+                ParticipantAnswer participantAnswer = new ParticipantAnswer();
+                participantAnswer.setParticipantId(submitted.getParticipantId());
+                participantAnswer.setQuestion(em.getReference(Question.class, submitted.getQuestionId()));
+                if (submitted.getAnswerId() != null) {
+                    participantAnswer.setAnswer(em.getReference(Answer.class, submitted.getAnswerId()));
+                }
+                participantAnswer.setTextAnswer(submitted.getTextAnswer());
+                participantAnswer.setAnsweredAt(submitted.getAnsweredAt());
+                participantAnswer.setPointsEarned(submitted.getPointsEarned());
+                em.persist(participantAnswer);
+            }
+            em.getTransaction().commit();
+        } catch (Exception e) {
+            em.getTransaction().rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+    
     public Optional<ParticipantAnswer> findById(Long id) {
         EntityManager em = JPAUtil.getEntityManager();
         try {
@@ -20,6 +20,7 @@ public class QuestionRepository {
                 question = em.merge(question);
             }
             em.getTransaction().commit();
+            JPAUtil.evictQuizContent();
             return question;
         } catch (Exception e) {
             em.getTransaction().rollback();
@@ -86,6 +87,7 @@ public class QuestionRepository {
             em.getTransaction().begin();
             em.remove(em.contains(question) ? question : em.merge(question));
             em.getTransaction().commit();
+            JPAUtil.evictQuizContent();
         } catch (Exception e) {
             em.getTransaction().rollback();
             throw e;
@@ -102,6 +104,7 @@ public class QuestionRepository {
                 .setParameter("quiz", quiz)
                 .executeUpdate();
             em.getTransaction().commit();
+            JPAUtil.evictQuizContent();
         } catch (Exception e) {
             em.getTransaction().rollback();
             throw e;
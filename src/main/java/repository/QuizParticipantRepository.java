@@ -3,11 +3,18 @@ package repository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
+import model.ParticipantScore;
+import model.ParticipantStatus;
 import model.QuizParticipant;
 import model.QuizSession;
 import util.JPAUtil;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class QuizParticipantRepository {
     
@@ -30,6 +37,102 @@ public class QuizParticipantRepository {
         }
     }
     
+    public List<QuizParticipant> saveAll(List<QuizParticipant> participants) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            for (int i = 0; i < participants.size(); i++) {
+                QuizParticipant participant = participants.get(i);
+                if (participant.getId() == null) {
+                    em.persist(participant);
+                } else {
+                    participants.set(i, em.merge(participant));
+                }
+            }
+            em.getTransaction().commit();
+            return participants;
+        } catch (Exception e) {
+            em.getTransaction().rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+    
+    public int updateStatusBySession(QuizSession session, ParticipantStatus status) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            int updated = em.createQuery(
+                "UPDATE QuizParticipant p SET p.status = :status WHERE p.session = :session")
+                .setParameter("status", status)
+                .setParameter("session", session)
+                .executeUpdate();
+            em.getTransaction().commit();
+            return updated;
+        } catch (Exception e) {
+            em.getTransaction().rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+    
+    public int markFinishedBySession(QuizSession session, LocalDateTime finishedAt) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            int updated = em.createQuery(
+                "UPDATE QuizParticipant p SET p.status = :finished, p.finishedAt = :finishedAt " +
+                "WHERE p.session = :session AND p.status <> :disconnected")
+                .setParameter("finished", ParticipantStatus.FINISHED)
+                .setParameter("finishedAt", finishedAt)
+                .setParameter("session", session)
+                .setParameter("disconnected", ParticipantStatus.DISCONNECTED)
+                .executeUpdate();
+            em.getTransaction().commit();
+            return updated;
+        } catch (Exception e) {
+            em.getTransaction().rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+    
+    public void updateScores(Collection<ParticipantScore> scores) {
+        if (scores.isEmpty()) {
+            return;
+        }
+        
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            Map<String, ParticipantScore> byParticipantId = scores.stream()
+                .collect(Collectors.toMap(ParticipantScore::getParticipantId, Function.identity(), (a, b) -> b));
+            
+            List<QuizParticipant> participants = em.createQuery(
+                "SELECT p FROM QuizParticipant p WHERE p.participantId IN :ids", 
+                QuizParticipant.class)
+                .setParameter("ids", byParticipantId.keySet())
+                .getResultList();
+            
+            for (QuizParticipant participant : participants) {
+                ParticipantScore score = byParticipantId.get(participant.getParticipantId());
+                participant.setTotalScore(score.getTotalScore());
+                participant.setCorrectAnswers(score.getCorrectAnswers());
+                participant.setTotalAnswers(score.getTotalAnswers());
+                participant.setAverageResponseTime(score.getAverageResponseSeconds());
+            }
+            em.getTransaction().commit();
+        } catch (Exception e) {
+            em.getTransaction().rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+    
     public Optional<QuizParticipant> findById(Long id) {
         EntityManager em = JPAUtil.getEntityManager();
         try {
@@ -40,6 +143,40 @@ public class QuizParticipantRepository {
         }
     }
     
+    public Optional<QuizParticipant> findByParticipantId(String participantId) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            TypedQuery<QuizParticipant> query = em.createQuery(
+                "SELECT p FROM QuizParticipant p WHERE p.participantId = :participantId", 
+                QuizParticipant.class);
+            query.setParameter("participantId", participantId);
+            return Optional.of(query.getSingleResult());
+        } catch (NoResultException e) {
+            return Optional.empty();
+        } finally {
+            em.close();
+        }
+    }
+    
+    public int updateStatus(String participantId, ParticipantStatus status) {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            int updated = em.createQuery(
+                "UPDATE QuizParticipant p SET p.status = :status WHERE p.participantId = :participantId")
+                .setParameter("status", status)
+                .setParameter("participantId", participantId)
+                .executeUpdate();
+            em.getTransaction().commit();
+            return updated;
+        } catch (Exception e) {
+            em.getTransaction().rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+    
     public List<QuizParticipant> findBySession(QuizSession session) {
         EntityManager em = JPAUtil.getEntityManager();
         try {
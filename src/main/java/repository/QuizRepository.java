@@ -20,6 +20,7 @@ public class QuizRepository {
                 quiz = em.merge(quiz);
             }
             em.getTransaction().commit();
+            JPAUtil.evictQuizContent();
             return quiz;
         } catch (Exception e) {
             em.getTransaction().rollback();
@@ -98,6 +99,7 @@ public List<Quiz> findAll() {
             TypedQuery<Quiz> query = em.createQuery(
                 "SELECT q FROM Quiz q WHERE q.isActive = true ORDER BY q.createdAt DESC", 
                 Quiz.class);
+            query.setHint("org.hibernate.cacheable", true);
             return query.getResultList();
         } finally {
             em.close();
@@ -137,6 +139,7 @@ public List<Quiz> findAll() {
             em.getTransaction().begin();
             em.remove(em.contains(quiz) ? quiz : em.merge(quiz));
             em.getTransaction().commit();
+            JPAUtil.evictQuizContent();
         } catch (Exception e) {
             em.getTransaction().rollback();
             throw e;
@@ -163,6 +166,7 @@ public List<Quiz> findAll() {
             TypedQuery<String> query = em.createQuery(
                 "SELECT DISTINCT q.category FROM Quiz q WHERE q.category IS NOT NULL", 
                 String.class);
+            query.setHint("org.hibernate.cacheable", true);
             return query.getResultList();
         } finally {
             em.close();
@@ -0,0 +1,65 @@
+package service;
+
+import model.CompiledQuiz;
+import model.Question;
+import model.Quiz;
+import repository.QuestionRepository;
+import repository.QuizRepository;
+import util.AppConfig;
+import util.JPAUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class CompiledQuizService {
+
+    // Jedan kompajlirani kviz po quizId, dijele ga sve igre; unos s starijom verzijom sadržaja se ponovo gradi
+    private static final Map<Long, Compiled> compiledQuizzes = new ConcurrentHashMap<>();
+    // i bez nove verzije se unos gradi ponovo nakon ovog roka, za slučaj da je čvor propustio izmjenu s drugog čvora
+    private static final long MAX_AGE_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            AppConfig.getLong("trivia.quiz.compiledMaxAgeMs", 1800000));
+
+    private static final class Compiled {
+        final CompiledQuiz quiz;
+        final long builtAt;
+
+        Compiled(CompiledQuiz quiz, long builtAt) {
+            this.quiz = quiz;
+            this.builtAt = builtAt;
+        }
+    }
+
+    private final QuizRepository quizRepository;
+    private final QuestionRepository questionRepository;
+
+    public CompiledQuizService() {
+        this.quizRepository = new QuizRepository();
+        this.questionRepository = new QuestionRepository();
+    }
+
+    public Optional<CompiledQuiz> getCompiledQuiz(Long quizId) {
+        long version = JPAUtil.getQuizContentVersion();
+
+        long now = System.nanoTime();
+        Compiled cached = compiledQuizzes.get(quizId);
+        if (cached != null && cached.quiz.getVersion() == version && now - cached.builtAt < MAX_AGE_NANOS) {
+            return Optional.of(cached.quiz);
+        }
+
+        // verzija se čita prije učitavanja, pa izmjena tokom gradnje samo ostavlja unos zastarjelim
+        Optional<Quiz> quizOpt = quizRepository.findById(quizId);
+        if (quizOpt.isEmpty()) {
+            compiledQuizzes.remove(quizId);
+            return Optional.empty();
+        }
+
+        List<Question> questions = questionRepository.findByQuizWithAnswers(quizOpt.get());
+        CompiledQuiz compiled = CompiledQuiz.compile(quizId, version, questions);
+        compiledQuizzes.merge(quizId, new Compiled(compiled, now),
+                (existing, fresh) -> existing.quiz.getVersion() > fresh.quiz.getVersion() ? existing : fresh);
+        return Optional.of(compiled);
+    }
+}
@@ -0,0 +1,196 @@
+package service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Snimci u jednom fajlu u koji se samo dopisuje; važi zadnji zapis sobe. Zapis je
+// int32 dužina, bajt vrste (1 snimak, 2 uklonjena), sadržaj, int32 CRC32 vrste i sadržaja.
+// Oštećen zapis na kraju (pad usred pisanja) se pri učitavanju odsiječe; prevelik fajl se prepiše sa živim sobama
+public class FileSnapshotStore implements SnapshotStore {
+
+    private static final byte KIND_SNAPSHOT = 1;
+    private static final byte KIND_REMOVED = 2;
+    private static final int MAX_RECORD_BYTES = 16 << 20;
+
+    private final Path file;
+    private final long compactBytes;
+    // zadnji snimak svake žive sobe, za sažimanje bez ponovnog čitanja fajla
+    private final Map<String, GameSnapshot> live = new LinkedHashMap<>();
+    private FileChannel channel;
+    private long compactedBytes;
+
+    public FileSnapshotStore(Path file, long compactBytes) throws IOException {
+        this.file = file;
+        this.compactBytes = compactBytes;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        channel = open(file);
+    }
+
+    @Override
+    public synchronized void save(GameSnapshot snapshot) throws IOException {
+        append(KIND_SNAPSHOT, encode(snapshot));
+        live.put(snapshot.sessionPin, snapshot);
+        compactIfNeeded();
+    }
+
+    @Override
+    public synchronized void remove(String sessionPin) throws IOException {
+        if (live.remove(sessionPin) == null)
+            return;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        new DataOutputStream(bytes).writeUTF(sessionPin);
+        append(KIND_REMOVED, bytes.toByteArray());
+        compactIfNeeded();
+    }
+
+    @Override
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized Map<String, GameSnapshot> loadAll() throws IOException {
+        live.clear();
+        long goodEnd = 0;
+        channel.position(0);
+
+        ByteBuffer header = ByteBuffer.allocate(4);
+        while (readFully(header.clear())) {
+            int length = header.flip().getInt();
+            if (length < 1 || length > MAX_RECORD_BYTES)
+                break;
+            ByteBuffer record = ByteBuffer.allocate(length + 4);
+            if (!readFully(record))
+                break;
+            record.flip();
+            byte[] body = new byte[length];
+            record.get(body);
+            if (record.getInt() != crc(body))
+                break;
+
+            try {
+                apply(body);
+            } catch (IOException e) {
+                // zapis nepoznatog formata se preskače, ostali zapisi su i dalje ispravni
+                System.err.println("Skipping snapshot record: " + e.getMessage());
+            }
+            goodEnd = channel.position();
+        }
+
+        if (goodEnd < channel.size()) {
+            System.err.println("Snapshot log " + file + " truncated at byte " + goodEnd);
+            channel.truncate(goodEnd);
+        }
+        channel.position(goodEnd);
+        return new LinkedHashMap<>(live);
+    }
+
+    @Override
+    public synchronized long sizeBytes() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing snapshot log: " + e.getMessage());
+        }
+    }
+
+    private void apply(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body, 1, body.length - 1));
+        if (body[0] == KIND_SNAPSHOT) {
+            GameSnapshot snapshot = GameSnapshot.readFrom(in);
+            live.put(snapshot.sessionPin, snapshot);
+        } else if (body[0] == KIND_REMOVED) {
+            live.remove(in.readUTF());
+        } else {
+            throw new IOException("Unknown record kind: " + body[0]);
+        }
+    }
+
+    private void append(byte kind, byte[] payload) throws IOException {
+        writeRecord(channel, kind, payload);
+    }
+
+    private static void writeRecord(FileChannel target, byte kind, byte[] payload) throws IOException {
+        byte[] body = new byte[payload.length + 1];
+        body[0] = kind;
+        System.arraycopy(payload, 0, body, 1, payload.length);
+
+        ByteBuffer record = ByteBuffer.allocate(4 + body.length + 4);
+        record.putInt(body.length).put(body).putInt(crc(body)).flip();
+        while (record.hasRemaining()) {
+            target.write(record);
+        }
+    }
+
+    // novi fajl se piše pored starog i zamjenjuje ga tek kad je kompletan; prag raste sa živim podacima,
+    // da veliki broj soba ne izazove sažimanje pri svakom upisu
+    private void compactIfNeeded() throws IOException {
+        if (channel.size() < Math.max(compactBytes, 2 * compactedBytes))
+            return;
+
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (GameSnapshot snapshot : live.values()) {
+                writeRecord(target, KIND_SNAPSHOT, encode(snapshot));
+            }
+            target.force(true);
+        }
+
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(file);
+        compactedBytes = channel.size();
+    }
+
+    private boolean readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private static byte[] encode(GameSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        snapshot.writeTo(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static int crc(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,120 @@
+package service;
+
+import model.ParticipantScore;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+// Stanje sobe u jednom trenutku: gdje je igra, bodovi i tokeni igrača. Drži samo kopije, pa se piše na drugoj
+// niti dok soba radi. Binarni oblik počinje verzijom formata; nepoznata verzija se preskače
+public final class GameSnapshot {
+
+    // 2: dodan token hosta
+    public static final int FORMAT_VERSION = 2;
+
+    // jedan igrač sobe
+    public static final class Player {
+        public final String participantId;
+        public final String resumeToken;
+        // odgovorio je na trenutno pitanje
+        public final boolean answered;
+        public final ParticipantScore score;
+
+        public Player(String participantId, String resumeToken, boolean answered, ParticipantScore score) {
+            this.participantId = participantId;
+            this.resumeToken = resumeToken;
+            this.answered = answered;
+            this.score = score;
+        }
+    }
+
+    public final String sessionPin;
+    public final long quizId;
+    // verzija sadržaja kviza se broji od pokretanja, pa se poklapanje provjerava po pitanjima
+    public final long quizFingerprint;
+    // redni broj snimka ove sobe; noviji zamjenjuje stariji
+    public final long sequence;
+    public final long capturedAtMillis;
+    public final int currentQuestionIndex;
+    public final boolean questionOpen;
+    public final long remainingMs;
+    public final String hostToken;
+    public final List<Player> players;
+
+    public GameSnapshot(String sessionPin, long quizId, long quizFingerprint, long sequence, long capturedAtMillis,
+            int currentQuestionIndex, boolean questionOpen, long remainingMs, String hostToken, List<Player> players) {
+        this.sessionPin = sessionPin;
+        this.quizId = quizId;
+        this.quizFingerprint = quizFingerprint;
+        this.sequence = sequence;
+        this.capturedAtMillis = capturedAtMillis;
+        this.currentQuestionIndex = currentQuestionIndex;
+        this.questionOpen = questionOpen;
+        this.remainingMs = remainingMs;
+        this.hostToken = hostToken;
+        this.players = List.copyOf(players);
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeUTF(sessionPin);
+        out.writeLong(quizId);
+        out.writeLong(quizFingerprint);
+        out.writeLong(sequence);
+        out.writeLong(capturedAtMillis);
+        out.writeInt(currentQuestionIndex);
+        out.writeBoolean(questionOpen);
+        out.writeLong(remainingMs);
+        out.writeUTF(hostToken != null ? hostToken : "");
+
+        out.writeInt(players.size());
+        for (Player player : players) {
+            out.writeUTF(player.participantId);
+            out.writeUTF(player.resumeToken != null ? player.resumeToken : "");
+            out.writeBoolean(player.answered);
+            out.writeBoolean(player.score != null);
+            if (player.score != null) {
+                out.writeInt(player.score.getTotalScore());
+                out.writeInt(player.score.getCorrectAnswers());
+                out.writeInt(player.score.getTotalAnswers());
+                out.writeDouble(player.score.getAverageResponseMillis());
+            }
+        }
+    }
+
+    public static GameSnapshot readFrom(DataInput in) throws IOException {
+        int format = in.readUnsignedByte();
+        if (format < 1 || format > FORMAT_VERSION)
+            throw new IOException("Unsupported snapshot format: " + format);
+
+        String sessionPin = in.readUTF();
+        long quizId = in.readLong();
+        long quizFingerprint = in.readLong();
+        long sequence = in.readLong();
+        long capturedAtMillis = in.readLong();
+        int currentQuestionIndex = in.readInt();
+        boolean questionOpen = in.readBoolean();
+        long remainingMs = in.readLong();
+        String hostToken = format >= 2 ? in.readUTF() : "";
+
+        int count = in.readInt();
+        if (count < 0)
+            throw new IOException("Invalid player count: " + count);
+        Player[] players = new Player[count];
+        for (int i = 0; i < count; i++) {
+            String participantId = in.readUTF();
+            String resumeToken = in.readUTF();
+            boolean answered = in.readBoolean();
+            ParticipantScore score = in.readBoolean()
+                    ? ParticipantScore.restore(participantId, in.readInt(), in.readInt(), in.readInt(), in.readDouble())
+                    : null;
+            players[i] = new Player(participantId, resumeToken.isEmpty() ? null : resumeToken, answered, score);
+        }
+
+        return new GameSnapshot(sessionPin, quizId, quizFingerprint, sequence, capturedAtMillis,
+                currentQuestionIndex, questionOpen, remainingMs, hostToken.isEmpty() ? null : hostToken,
+                List.of(players));
+    }
+}
@@ -0,0 +1,104 @@
+package service;
+
+import model.QuizParticipant;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Ograničen keš aktivnih učesnika po participantId; kad se napuni, izbacuje najdavnije korištenog,
+// a indeks po sesiji omogućava izbacivanje cijele sesije bez prolaska kroz keš.
+// Čuva svoju kopiju i vraća kopije, pa izmjena vraćenog učesnika ne mijenja keš niti drugog pozivaoca
+final class ParticipantCache {
+
+    private final int maxSize;
+    // redoslijed pristupa: prvi unos je najdavnije korišten
+    private final LinkedHashMap<String, QuizParticipant> byId = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Set<String>> bySession = new HashMap<>();
+
+    ParticipantCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    QuizParticipant get(String participantId) {
+        QuizParticipant cached;
+        synchronized (this) {
+            cached = byId.get(participantId);
+        }
+        return cached != null ? copyOf(cached) : null;
+    }
+
+    void put(QuizParticipant participant) {
+        store(copyOf(participant));
+    }
+
+    private synchronized void store(QuizParticipant participant) {
+        String participantId = participant.getParticipantId();
+        QuizParticipant previous = byId.put(participantId, participant);
+        if (previous != null)
+            unindex(previous);
+        index(participant);
+
+        if (byId.size() > maxSize) {
+            Iterator<QuizParticipant> eldest = byId.values().iterator();
+            QuizParticipant evicted = eldest.next();
+            eldest.remove();
+            unindex(evicted);
+        }
+    }
+
+    synchronized void remove(String participantId) {
+        QuizParticipant removed = byId.remove(participantId);
+        if (removed != null)
+            unindex(removed);
+    }
+
+    synchronized void removeSession(Long sessionId) {
+        Set<String> participantIds = bySession.remove(sessionId);
+        if (participantIds != null)
+            participantIds.forEach(byId::remove);
+    }
+
+    synchronized int size() {
+        return byId.size();
+    }
+
+    private void index(QuizParticipant participant) {
+        Long sessionId = sessionId(participant);
+        if (sessionId != null)
+            bySession.computeIfAbsent(sessionId, k -> new HashSet<>()).add(participant.getParticipantId());
+    }
+
+    private void unindex(QuizParticipant participant) {
+        Long sessionId = sessionId(participant);
+        if (sessionId == null)
+            return;
+        Set<String> participantIds = bySession.get(sessionId);
+        if (participantIds != null && participantIds.remove(participant.getParticipantId()) && participantIds.isEmpty())
+            bySession.remove(sessionId);
+    }
+
+    // sesija ostaje dijeljena: odvojena je od EntityManager-a i iz nje se čita samo id
+    private static QuizParticipant copyOf(QuizParticipant participant) {
+        QuizParticipant copy = new QuizParticipant();
+        copy.setId(participant.getId());
+        copy.setSession(participant.getSession());
+        copy.setParticipantName(participant.getParticipantName());
+        copy.setParticipantId(participant.getParticipantId());
+        copy.setStatus(participant.getStatus());
+        copy.setJoinedAt(participant.getJoinedAt());
+        copy.setFinishedAt(participant.getFinishedAt());
+        copy.setTotalScore(participant.getTotalScore());
+        copy.setCorrectAnswers(participant.getCorrectAnswers());
+        copy.setTotalAnswers(participant.getTotalAnswers());
+        copy.setAverageResponseTime(participant.getAverageResponseTime());
+        return copy;
+    }
+
+    private static Long sessionId(QuizParticipant participant) {
+        return participant.getSession() != null ? participant.getSession().getId() : null;
+    }
+}
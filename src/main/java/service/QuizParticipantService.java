@@ -4,13 +4,22 @@ import model.QuizParticipant;
 import model.QuizSession;
 import model.ParticipantStatus;
 import repository.QuizParticipantRepository;
+import util.AppConfig;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public class QuizParticipantService {
     
+    private static final boolean CACHE_ENABLED = AppConfig.getBoolean("trivia.participantCache.enabled", true);
+    private static final int CACHE_MAX_SIZE = 50_000;
+    
+    // Aktivni učesnici (WAITING/READY/PLAYING) po participantId; svaka izmjena reda izbacuje ili osvježava unos,
+    // a pozivaoci dobijaju kopije, pa izmjena bez save ne ostaje u kešu
+    private static final ParticipantCache activeParticipants = new ParticipantCache(CACHE_MAX_SIZE);
+    
     private final QuizParticipantRepository participantRepository;
     
     public QuizParticipantService() {
@@ -36,7 +45,7 @@ public class QuizParticipantService {
         participant.setCorrectAnswers(0);
         participant.setTotalAnswers(0);
         
-        return participantRepository.save(participant);
+        return cache(participantRepository.save(participant));
     }
     
     public List<QuizParticipant> getParticipantsBySession(QuizSession session) {
@@ -48,12 +57,14 @@ public class QuizParticipantService {
     }
     
     public Optional<QuizParticipant> findByParticipantId(String participantId) {
+        if (CACHE_ENABLED) {
+            QuizParticipant cached = activeParticipants.get(participantId);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
         
-        
-        List<QuizParticipant> allParticipants = participantRepository.findAll();
-        return allParticipants.stream()
-                .filter(p -> participantId.equals(p.getParticipantId()))
-                .findFirst();
+        return participantRepository.findByParticipantId(participantId).map(this::cache);
     }
     
     public Optional<QuizParticipant> findBySessionAndName(QuizSession session, String participantName) {
@@ -69,17 +80,18 @@ public class QuizParticipantService {
         if (participantOpt.isPresent()) {
             participantRepository.delete(participantOpt.get());
         }
+        evict(participantId);
     }
     
     public QuizParticipant updateParticipantStatus(String participantId, ParticipantStatus status) {
-        Optional<QuizParticipant> participantOpt = findByParticipantId(participantId);
-        if (!participantOpt.isPresent()) {
+        // samo status kolona - ne prepisujemo bodove koje ScoreWriter upisuje u pozadini
+        evict(participantId);
+        if (participantRepository.updateStatus(participantId, status) == 0) {
             throw new RuntimeException("Učesnik sa ID '" + participantId + "' ne postoji");
         }
         
-        QuizParticipant participant = participantOpt.get();
-        participant.setStatus(status);
-        return participantRepository.save(participant);
+        return findByParticipantId(participantId)
+                .orElseThrow(() -> new RuntimeException("Učesnik sa ID '" + participantId + "' ne postoji"));
     }
     
     public QuizParticipant updateParticipantScore(String participantId, int totalScore, int correctAnswers, int totalAnswers) {
@@ -92,7 +104,7 @@ public class QuizParticipantService {
         participant.setTotalScore(totalScore);
         participant.setCorrectAnswers(correctAnswers);
         participant.setTotalAnswers(totalAnswers);
-        return participantRepository.save(participant);
+        return cache(participantRepository.save(participant));
     }
     
     public List<QuizParticipant> getTopParticipants(QuizSession session, int limit) {
@@ -105,24 +117,47 @@ public class QuizParticipantService {
     
     public void removeAllParticipantsFromSession(QuizSession session) {
         participantRepository.deleteBySession(session);
+        evictSession(session);
     }
     
     public void markQuizFinishedForSession(QuizSession session) {
-        List<QuizParticipant> participants = participantRepository.findBySession(session);
-        for (QuizParticipant participant : participants) {
-            if (participant.getStatus() != ParticipantStatus.DISCONNECTED) {
-            participant.setStatus(ParticipantStatus.FINISHED);
-            participant.setFinishedAt(LocalDateTime.now());
-            participantRepository.save(participant);
-        }
-        }
+        participantRepository.markFinishedBySession(session, LocalDateTime.now());
+        evictSession(session);
     }
 
     public void markParticipantsPlaying(QuizSession session) {
-        List<QuizParticipant> participants = participantRepository.findBySession(session);
-        for (QuizParticipant participant : participants) {
-            participant.setStatus(ParticipantStatus.PLAYING);
-            participantRepository.save(participant);
+        participantRepository.updateStatusBySession(session, ParticipantStatus.PLAYING);
+        evictSession(session);
+    }
+    
+    public List<QuizParticipant> saveAll(List<QuizParticipant> participants) {
+        List<QuizParticipant> saved = participantRepository.saveAll(participants);
+        saved.forEach(this::cache);
+        return saved;
+    }
+    
+    public static void evict(String participantId) {
+        activeParticipants.remove(participantId);
+    }
+    
+    public static void evictAll(Collection<String> participantIds) {
+        participantIds.forEach(activeParticipants::remove);
+    }
+    
+    private void evictSession(QuizSession session) {
+        activeParticipants.removeSession(session.getId());
+    }
+    
+    private QuizParticipant cache(QuizParticipant participant) {
+        if (!CACHE_ENABLED) {
+            return participant;
+        }
+        
+        if (participant.isPlaying() || participant.isWaiting()) {
+            activeParticipants.put(participant);
+        } else {
+            activeParticipants.remove(participant.getParticipantId());
         }
+        return participant;
     }
 }
\ No newline at end of file
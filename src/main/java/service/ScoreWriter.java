@@ -0,0 +1,161 @@
+package service;
+
+import model.ParticipantScore;
+import model.SubmittedAnswer;
+import repository.ParticipantAnswerRepository;
+import repository.QuizParticipantRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ScoreWriter {
+
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final ScoreWriter instance = new ScoreWriter();
+
+    private final ParticipantAnswerRepository participantAnswerRepository = new ParticipantAnswerRepository();
+    private final QuizParticipantRepository participantRepository = new QuizParticipantRepository();
+
+    private final Queue<SubmittedAnswer> pendingAnswers = new ConcurrentLinkedQueue<>();
+    private final Map<String, ParticipantScore> dirtyScores = new ConcurrentHashMap<>();
+    // SubmittedAnswer nema equals, pa je ključ sam objekat; čita se i mijenja samo pod flushLock
+    private final Map<SubmittedAnswer, Integer> failedAttempts = new HashMap<>();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService executor;
+
+    private ScoreWriter() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "score-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static ScoreWriter getInstance() {
+        return instance;
+    }
+
+    public void record(SubmittedAnswer answer, ParticipantScore score) {
+        pendingAnswers.add(answer);
+        // score se mijenja prije put-a, tako da flush nikad ne izgubi zadnju vrijednost
+        dirtyScores.put(score.getParticipantId(), score);
+    }
+
+    // sesija se briše: odbacuju se i njeni odgovori i neupisani rezultati
+    public void discardSession(String sessionPin) {
+        synchronized (flushLock) {
+            Set<String> participantIds = new HashSet<>();
+            pendingAnswers.removeIf(answer -> {
+                if (!sessionPin.equals(answer.getSessionPin()))
+                    return false;
+                participantIds.add(answer.getParticipantId());
+                return true;
+            });
+            participantIds.forEach(dirtyScores::remove);
+            failedAttempts.keySet().removeIf(answer -> sessionPin.equals(answer.getSessionPin()));
+        }
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            List<SubmittedAnswer> answers = new ArrayList<>();
+            SubmittedAnswer answer;
+            while ((answer = pendingAnswers.poll()) != null) {
+                answers.add(answer);
+            }
+
+            List<ParticipantScore> liveScores = new ArrayList<>();
+            List<ParticipantScore> snapshots = new ArrayList<>();
+            for (String participantId : dirtyScores.keySet()) {
+                ParticipantScore score = dirtyScores.remove(participantId);
+                if (score != null) {
+                    liveScores.add(score);
+                    snapshots.add(score.snapshot());
+                }
+            }
+
+            // bodovi se upisuju i kad odgovori ne prođu, jer ne zavise od njih
+            RuntimeException failure = null;
+            try {
+                saveAnswers(answers);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            try {
+                participantRepository.updateScores(snapshots);
+                QuizParticipantService.evictAll(dirtyIds(snapshots));
+            } catch (RuntimeException e) {
+                liveScores.forEach(score -> dirtyScores.putIfAbsent(score.getParticipantId(), score));
+                if (failure == null)
+                    failure = e;
+            }
+            if (failure != null)
+                throw failure;
+        }
+    }
+
+    // Kad grupa ne prođe, odgovori se upisuju jedan po jedan, da jedan loš red (obrisano pitanje ili
+    // odgovor, obrisan učesnik) ne blokira ostale; red koji ne prođe ni nakon MAX_ATTEMPTS pokušaja se odbacuje
+    private void saveAnswers(List<SubmittedAnswer> answers) {
+        if (answers.isEmpty())
+            return;
+        try {
+            participantAnswerRepository.saveAll(answers);
+            answers.forEach(failedAttempts::remove);
+            return;
+        } catch (RuntimeException e) {
+            System.err.println("Batch of " + answers.size() + " answers failed, retrying one by one: " + e.getMessage());
+        }
+
+        RuntimeException last = null;
+        for (SubmittedAnswer answer : answers) {
+            try {
+                participantAnswerRepository.saveAll(List.of(answer));
+                failedAttempts.remove(answer);
+            } catch (RuntimeException e) {
+                last = e;
+                int attempts = failedAttempts.merge(answer, 1, Integer::sum);
+                if (attempts < MAX_ATTEMPTS) {
+                    pendingAnswers.add(answer);
+                } else {
+                    failedAttempts.remove(answer);
+                    System.err.println("Dropping answer of " + answer.getParticipantId() + " to question "
+                            + answer.getQuestionId() + " after " + attempts + " attempts: " + e.getMessage());
+                }
+            }
+        }
+        if (last != null)
+            throw last;
+    }
+
+    private static List<String> dirtyIds(List<ParticipantScore> snapshots) {
+        List<String> ids = new ArrayList<>(snapshots.size());
+        snapshots.forEach(score -> ids.add(score.getParticipantId()));
+        return ids;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("Error flushing scores: " + e.getMessage());
+        }
+    }
+}
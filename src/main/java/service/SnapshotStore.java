@@ -0,0 +1,23 @@
+package service;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Gdje se čuvaju snimci soba između pokretanja
+public interface SnapshotStore {
+
+    void save(GameSnapshot snapshot) throws IOException;
+
+    // soba se ne vraća nakon sljedećeg pokretanja
+    void remove(String sessionPin) throws IOException;
+
+    // sve dosad snimljeno ostaje i nakon pada
+    void sync() throws IOException;
+
+    // zadnji snimak svake neuklonjene sobe, po PIN-u
+    Map<String, GameSnapshot> loadAll() throws IOException;
+
+    long sizeBytes();
+
+    void close();
+}
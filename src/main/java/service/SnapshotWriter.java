@@ -0,0 +1,164 @@
+package service;
+
+import util.AppConfig;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Piše snimke soba na svojoj niti; soba preda snimak i odmah nastavlja. Čuva se samo najnoviji snimak sobe,
+// pa spor disk košta najviše jedan snimak po sobi i nikad ne zaustavi sobu
+public class SnapshotWriter {
+
+    private static final Object REMOVED = new Object();
+
+    private static final boolean ENABLED = AppConfig.getBoolean("trivia.snapshot.enabled", true);
+    private static final long INTERVAL_MS = Math.max(100, AppConfig.getLong("trivia.snapshot.intervalMs", 1000));
+    private static final SnapshotWriter instance = new SnapshotWriter();
+
+    private final Map<String, Object> pending = new ConcurrentHashMap<>();
+    private final SnapshotStore store;
+    private final ScheduledExecutorService executor;
+    private final Object flushLock = new Object();
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong lastFlushMicros = new AtomicLong();
+    private final AtomicLong maxFlushMicros = new AtomicLong();
+
+    private SnapshotWriter() {
+        store = ENABLED ? openStore() : null;
+        if (store == null) {
+            executor = null;
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, INTERVAL_MS, INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static SnapshotWriter getInstance() {
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    // koliko često sobe prave snimak
+    public long getIntervalMillis() {
+        return INTERVAL_MS;
+    }
+
+    public void offer(GameSnapshot snapshot) {
+        if (store != null)
+            pending.put(snapshot.sessionPin, snapshot);
+    }
+
+    public void remove(String sessionPin) {
+        if (store != null)
+            pending.put(sessionPin, REMOVED);
+    }
+
+    // sobe snimljene prije zadnjeg gašenja ili pada, po PIN-u
+    public Map<String, GameSnapshot> loadAll() {
+        if (store == null)
+            return Collections.emptyMap();
+        synchronized (flushLock) {
+            try {
+                return store.loadAll();
+            } catch (IOException e) {
+                System.err.println("Error reading snapshots: " + e.getMessage());
+                return Collections.emptyMap();
+            }
+        }
+    }
+
+    public void flush() throws IOException {
+        if (store == null)
+            return;
+        synchronized (flushLock) {
+            long started = System.nanoTime();
+            boolean wrote = false;
+            for (String sessionPin : pending.keySet()) {
+                Object entry = pending.remove(sessionPin);
+                if (entry == null)
+                    continue;
+                try {
+                    if (entry == REMOVED) {
+                        store.remove(sessionPin);
+                    } else {
+                        store.save((GameSnapshot) entry);
+                        written.increment();
+                    }
+                    wrote = true;
+                } catch (IOException e) {
+                    failed.increment();
+                    // noviji snimak ili brisanje koje je stiglo u međuvremenu ima prednost
+                    pending.putIfAbsent(sessionPin, entry);
+                    throw e;
+                }
+            }
+            if (wrote) {
+                store.sync();
+                long micros = (System.nanoTime() - started) / 1000;
+                lastFlushMicros.set(micros);
+                maxFlushMicros.accumulateAndGet(micros, Math::max);
+            }
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", store != null);
+        if (store != null) {
+            metrics.put("intervalMs", INTERVAL_MS);
+            metrics.put("pending", pending.size());
+            metrics.put("written", written.sum());
+            metrics.put("failed", failed.sum());
+            metrics.put("fileBytes", store.sizeBytes());
+            metrics.put("lastFlushMicros", lastFlushMicros.get());
+            metrics.put("maxFlushMicros", maxFlushMicros.get());
+        }
+        return metrics;
+    }
+
+    // sobe se pri gašenju ne čiste, pa zadnji snimci ostaju za sljedeće pokretanje
+    public void shutdown() {
+        if (store == null)
+            return;
+        executor.shutdown();
+        flushQuietly();
+        store.close();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("Error writing snapshots: " + e.getMessage());
+        }
+    }
+
+    private static SnapshotStore openStore() {
+        Path file = Path.of(AppConfig.getString("trivia.snapshot.file",
+                Path.of(System.getProperty("java.io.tmpdir"), "trivia-snapshots.log").toString()));
+        try {
+            return new FileSnapshotStore(file, AppConfig.getLong("trivia.snapshot.compactBytes", 8L << 20));
+        } catch (IOException e) {
+            System.err.println("Snapshots disabled, cannot open " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package servlets;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Binarni oblik najčešćih okvira igre za konekcije koje su dogovorile SUBPROTOCOL; sve ostalo ostaje JSON.
+// Big-endian, prvi bajt je opcode; id-ovi int64, brojevi int32, stringovi uint16 dužina pa UTF-8:
+// 0x01 SUBMIT_ANSWER  questionId, kind (0 ništa, 1 answerId, 2 tekst), answerId | tekst
+// 0x81 ANSWER_RESULT  questionId, flags (1 isCorrect, 2 ima tačan odgovor), pointsEarned, [correctAnswerId, correctAnswerText]
+// 0x82 TICK           sessionPin, count, {participantId, result (0 netačno, 1 tačno, 2 skriveno)}*, count, {participantId, score, rank}*
+final class BinaryFrames {
+
+    static final String SUBPROTOCOL = "trivia.bin.v1";
+
+    static final byte SUBMIT_ANSWER = 0x01;
+    static final byte ANSWER_RESULT = (byte) 0x81;
+    static final byte TICK = (byte) 0x82;
+
+    private static final byte ANSWER_NONE = 0;
+    private static final byte ANSWER_ID = 1;
+    private static final byte ANSWER_TEXT = 2;
+
+    private static final byte RESULT_WRONG = 0;
+    private static final byte RESULT_CORRECT = 1;
+    private static final byte RESULT_HIDDEN = 2;
+
+    private static final byte FLAG_CORRECT = 1;
+    private static final byte FLAG_HAS_CORRECT_ANSWER = 2;
+
+    // odgovor kako ga je igrač poslao, prije provjere
+    static final class Submission {
+        final long questionId;
+        final Long answerId;
+        final String text;
+
+        Submission(long questionId, Long answerId, String text) {
+            this.questionId = questionId;
+            this.answerId = answerId;
+            this.text = text;
+        }
+    }
+
+    private BinaryFrames() {
+    }
+
+    // -1 za prazan okvir
+    static int opcode(ByteBuffer frame) {
+        return frame.remaining() > 0 ? frame.get(frame.position()) : -1;
+    }
+
+    static Submission decodeSubmitAnswer(ByteBuffer in) {
+        in.get();
+        long questionId = in.getLong();
+        byte kind = in.get();
+        return switch (kind) {
+            case ANSWER_NONE -> new Submission(questionId, null, null);
+            case ANSWER_ID -> new Submission(questionId, in.getLong(), null);
+            case ANSWER_TEXT -> new Submission(questionId, null, readString(in));
+            default -> throw new IllegalArgumentException("Unknown answer kind: " + kind);
+        };
+    }
+
+    static ByteBuffer answerResult(long questionId, boolean isCorrect, int pointsEarned,
+            Long correctAnswerId, String correctAnswerText) {
+        byte[] correctText = utf8(correctAnswerId != null ? correctAnswerText : null);
+        ByteBuffer out = ByteBuffer.allocate(1 + 8 + 1 + 4 + (correctAnswerId != null ? 8 + 2 + correctText.length : 0));
+        out.put(ANSWER_RESULT);
+        out.putLong(questionId);
+        out.put((byte) ((isCorrect ? FLAG_CORRECT : 0) | (correctAnswerId != null ? FLAG_HAS_CORRECT_ANSWER : 0)));
+        out.putInt(pointsEarned);
+        if (correctAnswerId != null) {
+            out.putLong(correctAnswerId);
+            putString(out, correctText);
+        }
+        return out.flip().asReadOnlyBuffer();
+    }
+
+    static ByteBuffer tick(String sessionPin, List<TickBatch.Answered> answered, List<Leaderboard.Standing> changes) {
+        byte[] pin = utf8(sessionPin);
+        byte[][] answeredIds = new byte[answered.size()][];
+        byte[][] changedIds = new byte[changes.size()][];
+
+        int size = 1 + 2 + pin.length + 4 + 4;
+        for (int i = 0; i < answeredIds.length; i++) {
+            answeredIds[i] = utf8(answered.get(i).participantId);
+            size += 2 + answeredIds[i].length + 1;
+        }
+        for (int i = 0; i < changedIds.length; i++) {
+            changedIds[i] = utf8(changes.get(i).participantId);
+            size += 2 + changedIds[i].length + 4 + 4;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.put(TICK);
+        putString(out, pin);
+        out.putInt(answeredIds.length);
+        for (int i = 0; i < answeredIds.length; i++) {
+            putString(out, answeredIds[i]);
+            Boolean isCorrect = answered.get(i).isCorrect;
+            out.put(isCorrect == null ? RESULT_HIDDEN : isCorrect ? RESULT_CORRECT : RESULT_WRONG);
+        }
+        out.putInt(changedIds.length);
+        for (int i = 0; i < changedIds.length; i++) {
+            Leaderboard.Standing standing = changes.get(i);
+            putString(out, changedIds[i]);
+            out.putInt(standing.score);
+            out.putInt(standing.rank);
+        }
+        return out.flip().asReadOnlyBuffer();
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > 0xFFFF)
+            throw new IllegalArgumentException("String too long for a binary frame: " + bytes.length + " bytes");
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer out, byte[] bytes) {
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
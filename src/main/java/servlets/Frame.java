@@ -0,0 +1,31 @@
+package servlets;
+
+import java.nio.ByteBuffer;
+
+final class Frame {
+
+    final String type;
+    final String text;
+    final boolean coalescible;
+    // binarni oblik istog okvira za konekcije koje su ga dogovorile; null ako ga tip nema
+    final ByteBuffer binary;
+
+    Frame(String type, String text, boolean coalescible) {
+        this(type, text, coalescible, null);
+    }
+
+    private Frame(String type, String text, boolean coalescible, ByteBuffer binary) {
+        this.type = type;
+        this.text = text;
+        this.coalescible = coalescible;
+        this.binary = binary;
+    }
+
+    static Frame of(String text) {
+        return new Frame(null, text, false);
+    }
+
+    Frame withBinary(ByteBuffer binary) {
+        return new Frame(type, text, coalescible, binary);
+    }
+}
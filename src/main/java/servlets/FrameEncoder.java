@@ -0,0 +1,213 @@
+package servlets;
+
+import com.google.gson.stream.JsonWriter;
+import model.CompiledQuiz;
+import model.QuizParticipant;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+final class FrameEncoder {
+
+    private static final ThreadLocal<StringWriter> buffers = ThreadLocal.withInitial(() -> new StringWriter(512));
+
+    @FunctionalInterface
+    private interface Body {
+        void write(JsonWriter out) throws IOException;
+    }
+
+    private FrameEncoder() {
+    }
+
+    static Frame message(String type, String message) {
+        return encode(type, false, out -> out.name("message").value(message));
+    }
+
+    static Frame participantLeft(String participantId) {
+        return encode("PARTICIPANT_LEFT", false, out -> out.name("participantId").value(participantId));
+    }
+
+    // puni presjek rezultata, šalje se samo na granici pitanja
+    static Frame scoreUpdate(Map<String, Integer> scores, List<Leaderboard.Standing> top) {
+        return encode("SCORE_UPDATE", true, out -> {
+            out.name("scores").beginObject();
+            for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+                out.name(entry.getKey()).value(entry.getValue());
+            }
+            out.endObject();
+            out.name("top");
+            writeStandings(out, top);
+        });
+    }
+
+    // svi odgovori i promjene plasmana od prošlog tick-a u jednom okviru
+    static Frame tick(String sessionPin, List<TickBatch.Answered> answered, List<Leaderboard.Standing> changes) {
+        Frame frame = encode("TICK", false, out -> {
+            out.name("sessionPin").value(sessionPin);
+            out.name("answered").beginArray();
+            for (TickBatch.Answered event : answered) {
+                out.beginObject();
+                out.name("participantId").value(event.participantId);
+                if (event.isCorrect != null)
+                    out.name("isCorrect").value(event.isCorrect);
+                out.endObject();
+            }
+            out.endArray();
+            out.name("changes");
+            writeStandings(out, changes);
+        });
+        return frame.withBinary(BinaryFrames.tick(sessionPin, answered, changes));
+    }
+
+    private static void writeStandings(JsonWriter out, List<Leaderboard.Standing> standings) throws IOException {
+        out.beginArray();
+        for (Leaderboard.Standing standing : standings) {
+            out.beginObject();
+            out.name("participantId").value(standing.participantId);
+            out.name("score").value(standing.score);
+            out.name("rank").value(standing.rank);
+            out.endObject();
+        }
+        out.endArray();
+    }
+
+    // igrači dobijaju pitanje bez ključa; host ga prikazuje pa njemu ide i isCorrect
+    static Frame question(CompiledQuiz quiz, int index, boolean includeAnswerKey) {
+        return encode(index == 0 ? "FIRST_QUESTION" : "NEXT_QUESTION", false, out -> {
+            out.name("questionId").value(Long.toString(quiz.getQuestionId(index)));
+            out.name("questionText").value(quiz.getQuestionText(index));
+            out.name("questionImage").value(quiz.getQuestionImage(index));
+            out.name("questionOrder").value(quiz.getQuestionOrder(index));
+            out.name("timeLimit").value(quiz.getTimeLimit(index));
+            out.name("points").value(quiz.getPoints(index));
+            out.name("questionType").value(quiz.getQuestionType(index).toString());
+            out.name("totalQuestions").value(quiz.getQuestionCount());
+            out.name("currentQuestionNumber").value(index + 1);
+
+            out.name("answers").beginArray();
+            for (int slot = quiz.getFirstAnswerSlot(index); slot < quiz.getAnswerSlotEnd(index); slot++) {
+                out.beginObject();
+                out.name("id").value(Long.toString(quiz.getAnswerId(slot)));
+                out.name("answerText").value(quiz.getAnswerText(slot));
+                out.name("answerOrder").value(quiz.getAnswerOrder(slot));
+                if (includeAnswerKey) {
+                    out.name("isCorrect").value(quiz.isCorrect(slot));
+                }
+                out.endObject();
+            }
+            out.endArray();
+        });
+    }
+
+    // potvrda prijema odgovora; rezultat i tačan odgovor igrač dobija tek kad se pitanje zatvori za sve
+    static Frame answerReceived(CompiledQuiz quiz, int questionIndex) {
+        return encode("ANSWER_RECEIVED", false,
+                out -> out.name("questionId").value(Long.toString(quiz.getQuestionId(questionIndex))));
+    }
+
+    static Frame answerResult(CompiledQuiz quiz, int questionIndex, boolean isCorrect, int pointsEarned) {
+        int correctSlot = quiz.getCorrectAnswerSlot(questionIndex);
+        Frame frame = encode("ANSWER_RESULT", false, out -> {
+            out.name("questionId").value(Long.toString(quiz.getQuestionId(questionIndex)));
+            out.name("isCorrect").value(isCorrect);
+            out.name("pointsEarned").value(pointsEarned);
+
+            if (correctSlot >= 0) {
+                out.name("correctAnswerId").value(Long.toString(quiz.getAnswerId(correctSlot)));
+                out.name("correctAnswerText").value(quiz.getAnswerText(correctSlot));
+            }
+        });
+        return frame.withBinary(BinaryFrames.answerResult(quiz.getQuestionId(questionIndex), isCorrect, pointsEarned,
+                correctSlot >= 0 ? quiz.getAnswerId(correctSlot) : null,
+                correctSlot >= 0 ? quiz.getAnswerText(correctSlot) : null));
+    }
+
+    static Frame questionClosed(CompiledQuiz quiz, int questionIndex, long nextInMs) {
+        int correctSlot = quiz.getCorrectAnswerSlot(questionIndex);
+        return encode("QUESTION_CLOSED", false, out -> {
+            out.name("questionId").value(Long.toString(quiz.getQuestionId(questionIndex)));
+            out.name("isLast").value(questionIndex + 1 >= quiz.getQuestionCount());
+            out.name("nextInMs").value(nextInMs);
+            if (correctSlot >= 0) {
+                out.name("correctAnswerId").value(Long.toString(quiz.getAnswerId(correctSlot)));
+                out.name("correctAnswerText").value(quiz.getAnswerText(correctSlot));
+            }
+        });
+    }
+
+    // token s kojim se igrač vraća u istu igru nakon prekida veze
+    static Frame session(String resumeToken) {
+        return encode("SESSION", false, out -> out.name("resumeToken").value(resumeToken));
+    }
+
+    // sažetak stanja za igrača koji se vratio: ide nakon okvira trenutnog pitanja, ako je otvoreno
+    static Frame catchUp(CompiledQuiz quiz, int questionIndex, boolean questionOpen, long remainingMs,
+            boolean answered, int score, int rank, int players) {
+        return encode("CATCH_UP", false, out -> {
+            out.name("questionId").value(Long.toString(quiz.getQuestionId(questionIndex)));
+            out.name("currentQuestionNumber").value(questionIndex + 1);
+            out.name("totalQuestions").value(quiz.getQuestionCount());
+            out.name("questionOpen").value(questionOpen);
+            out.name("remainingMs").value(remainingMs);
+            out.name("answered").value(answered);
+            out.name("score").value(score);
+            out.name("rank").value(rank);
+            out.name("players").value(players);
+        });
+    }
+
+    // cijeli spisak čekaonice; JOIN i LEAVE koji slijede nose naredne verzije
+    static Frame roster(String sessionPin, long version, List<QuizParticipant> participants) {
+        return encode("ROSTER", false, out -> {
+            out.name("sessionId").value(sessionPin);
+            out.name("version").value(version);
+            out.name("participants").beginArray();
+            for (QuizParticipant participant : participants) {
+                out.beginObject();
+                out.name("participantId").value(participant.getParticipantId());
+                out.name("participantName").value(participant.getParticipantName());
+                out.endObject();
+            }
+            out.endArray();
+        });
+    }
+
+    static Frame joined(String sessionPin, long version, QuizParticipant participant, String timestamp) {
+        return encode("JOIN", false, out -> {
+            out.name("name").value(participant.getParticipantName());
+            out.name("participantId").value(participant.getParticipantId());
+            out.name("sessionId").value(sessionPin);
+            out.name("version").value(version);
+            out.name("timestamp").value(timestamp);
+        });
+    }
+
+    static Frame left(long version, String participantId) {
+        return encode("LEAVE", false, out -> {
+            out.name("participantId").value(participantId);
+            out.name("version").value(version);
+        });
+    }
+
+    private static Frame encode(String type, boolean coalescible, Body body) {
+        StringWriter buffer = buffers.get();
+        buffer.getBuffer().setLength(0);
+
+        try {
+            JsonWriter out = new JsonWriter(buffer);
+            out.setSerializeNulls(false);
+            out.beginObject();
+            out.name("type").value(type);
+            body.write(out);
+            out.endObject();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new Frame(type, buffer.toString(), coalescible);
+    }
+}
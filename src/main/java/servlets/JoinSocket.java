@@ -1,20 +1,25 @@
 package servlets;
 
+import cluster.Cluster;
 import jakarta.websocket.*;
 import jakarta.websocket.server.PathParam;
 import jakarta.websocket.server.ServerEndpoint;
 import model.QuizParticipant;
 import model.QuizSession;
+import model.SessionStatus;
 import service.QuizParticipantService;
 import service.QuizSessionService;
+import util.AppConfig;
+import util.DbExecutor;
+import util.WheelTimer;
 
-import java.io.IOException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
@@ -22,206 +27,240 @@ import com.google.gson.JsonObject;
 @ServerEndpoint("/joinQuizSocket/{sessionPin}")
 public class JoinSocket {
 
-    private static Set<Session> sessions = Collections.synchronizedSet(new HashSet<>());
+    private static final String LOBBY_PROPERTY = "lobby";
 
-    private static Map<Session, String> sessionToParticipantId = Collections.synchronizedMap(new HashMap<>());
+    // igrač čija se veza zatvorila u čekaonici ima rok da se vrati prije nego bude uklonjen
+    private static final long LEAVE_GRACE_MS = AppConfig.getLong("trivia.lobby.leaveGraceMs", 10000);
+    private static final WheelTimer timers = WheelTimer.shared();
 
-    private static Map<Session, String> sessionToQuizSessionId = Collections.synchronizedMap(new HashMap<>());
+    // čekaonica po PIN-u drži svoje konekcije i igrače; poruka ide samo konekcijama te čekaonice
+    private static final Map<String, Lobby> lobbies = new ConcurrentHashMap<>();
+    private static final Gson gson = new Gson();
+
+    static {
+        Cluster.registerRooms(lobbies::keySet);
+    }
+
+    // odakle čekaonica učitava sesiju; kontejner pravi endpoint bez argumenata, testovi podmeću svoj izvor
+    private final Function<Lobby, CompletableFuture<Optional<QuizSession>>> sessionLoader;
+
+    public JoinSocket() {
+        this(JoinSocket::load);
+    }
+
+    JoinSocket(Function<Lobby, CompletableFuture<Optional<QuizSession>>> sessionLoader) {
+        this.sessionLoader = sessionLoader;
+    }
+
+    // null ako niko nije spojen na čekaonicu sesije
+    static Lobby findLobby(String sessionPin) {
+        return lobbies.get(sessionPin);
+    }
+
+    // broj čekaonica u memoriji
+    static int lobbyCount() {
+        return lobbies.size();
+    }
 
     @OnOpen
     public void onOpen(Session session, @PathParam("sessionPin") String sessionPin) {
-        sessions.add(session);
-
-        sessionToQuizSessionId.put(session, sessionPin);
-        System.out.println("WebSocket otvoren: " + session.getId() + " za quiz: " + sessionPin);
+        // čekaonica koja već postoji ostaje na ovom čvoru; nova ide na vlasnika PIN-a
+        if (!lobbies.containsKey(sessionPin) && RoomRouting.redirect(session, sessionPin))
+            return;
+
+        // povučena čekaonica više ne prima konekcije, pa se uzima nova
+        Lobby lobby;
+        do {
+            lobby = lobbies.computeIfAbsent(sessionPin, Lobby::new);
+        } while (!lobby.connect(session));
+
+        session.getUserProperties().put(LOBBY_PROPERTY, lobby);
+        sendRoster(lobby, session);
     }
 
     @OnMessage
     public void onMessage(String message, Session session) {
-        System.out.println(message);
         try {
-            Gson gson = new Gson();
             JsonObject jsonMessage = gson.fromJson(message, JsonObject.class);
+            Lobby lobby = lobbyOf(session);
 
             String messageType = jsonMessage.has("type") ? jsonMessage.get("type").getAsString() : "";
 
-            if ("HOST_LEFT".equals(messageType)) {
-                handleHostLeft(jsonMessage, session);
-                return;
-            }
-
-            if ("QUIZ_STARTING".equals(messageType)) {
-                handleQuizStarting(jsonMessage, session);
-                return;
-            }
-
-            String sessionId = null;
-            String username = null;
-            if (jsonMessage.has("sessionId")) {
-                sessionId = jsonMessage.get("sessionId").getAsString();
-                System.out.println("Session ID: " + sessionId);
-            }
-            if (jsonMessage.has("name")) {
-                username = jsonMessage.get("name").getAsString();
-                System.out.println("Username: " + username);
+            switch (messageType) {
+                case "HOST_LEFT" -> handleHostLeft(jsonMessage, lobby, session);
+                case "QUIZ_STARTING" -> handleQuizStarting(jsonMessage, lobby, session);
+                case "LEAVE" -> handleLeave(lobby, session);
+                case "JOIN" -> handleJoin(jsonMessage, lobby, session);
+                case "ROSTER" -> sendRoster(lobby, session);
+                default -> System.out.println("Nepoznata poruka u čekaonici: " + messageType);
             }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 
-            QuizParticipantService participantService = new QuizParticipantService();
-            QuizSessionService sessionService = new QuizSessionService();
+    private void handleJoin(JsonObject jsonMessage, Lobby lobby, Session session) {
+        String username = jsonMessage.has("name") ? jsonMessage.get("name").getAsString().trim() : "";
 
-            Optional<QuizSession> sessionOpt = sessionService.findBySessionPin(sessionId);
+        if (lobby.isBound(session))
+            return;
+        if (username.isEmpty()) {
+            sendJoinRejected(session, "Ime ne smije biti prazno");
+            return;
+        }
+        if (lobby.isClosed()) {
+            sendJoinRejected(session, "Kviz je već počeo");
+            return;
+        }
+        // dva brza JOIN-a bi oba prošla isBound dok se sesija učitava i napravila igrača bez konekcije
+        if (!lobby.reserve(session))
+            return;
 
-            if (!sessionOpt.isPresent()) {
-                System.out.println("Nema session");
-                return;
+        // samo prva konekcija u čekaonicu čeka na bazu; prijave se obrade odmah, na niti koja je primila poruku
+        lobby.session(() -> sessionLoader.apply(lobby)).whenComplete((sessionOpt, error) -> {
+            try {
+                join(jsonMessage, lobby, session, username, error == null ? sessionOpt : Optional.empty());
+            } finally {
+                lobby.release(session);
             }
+        });
+    }
 
-            QuizSession quizSession = sessionOpt.get();
+    private void join(JsonObject jsonMessage, Lobby lobby, Session session, String username,
+            Optional<QuizSession> sessionOpt) {
+        if (sessionOpt.isEmpty()) {
+            sendJoinRejected(session, "Sesija nije pronađena");
+            return;
+        }
 
-            QuizParticipant participant = participantService.createParticipant(
-                    quizSession, username);
+        String timestamp = jsonMessage.has("timestamp") ? jsonMessage.get("timestamp").getAsString() : null;
+        QuizParticipant participant = lobby.admit(sessionOpt.get(), username, timestamp);
+        if (participant == null) {
+            sendJoinRejected(session, lobby.isClosed() ? "Kviz je već počeo" : "Ime " + username + " je već zauzeto");
+            return;
+        }
 
-            sessionToParticipantId.put(session, participant.getParticipantId());
+        if (!lobby.bind(session, participant.getParticipantId())) {
+            lobby.remove(participant.getParticipantId());
+            return;
+        }
+        // konekcija se mogla zatvoriti dok se čekaonica učitavala; onClose tada nije imao koga ukloniti
+        if (!session.isOpen() && lobby.unbind(session) != null) {
+            lobby.remove(participant.getParticipantId());
+            retireIfIdle(lobby);
+        }
+    }
 
-            System.out.println("Povezao WebSocket sesiju sa participantom: " + participant.getParticipantId());
+    // nova konekcija (i klijent koji je primijetio rupu u verzijama) dobija cijeli spisak, pa zatim samo promjene
+    private void sendRoster(Lobby lobby, Session session) {
+        lobby.session(() -> sessionLoader.apply(lobby)).thenAccept(sessionOpt -> {
+            if (sessionOpt.isPresent())
+                lobby.sendRoster(session);
+        });
+    }
 
-            JsonObject joinResponse = new JsonObject();
-            joinResponse.addProperty("type", "JOIN");
-            joinResponse.addProperty("name", username);
-            joinResponse.addProperty("participantId", participant.getParticipantId());
-            joinResponse.addProperty("sessionId", sessionId);
-            if (jsonMessage.has("timestamp")) {
-                joinResponse.addProperty("timestamp", jsonMessage.get("timestamp").getAsString());
-            }
+    // u čekaonicu se može samo dok sesija čeka početak
+    private static CompletableFuture<Optional<QuizSession>> load(Lobby lobby) {
+        return DbExecutor.supply(() -> {
+            Optional<QuizSession> sessionOpt = new QuizSessionService().findBySessionPin(lobby.getSessionPin())
+                    .filter(quizSession -> quizSession.getStatus() == SessionStatus.WAITING);
+            sessionOpt.ifPresent(quizSession ->
+                    lobby.seed(new QuizParticipantService().getParticipantsBySession(quizSession)));
+            return sessionOpt;
+        });
+    }
 
-            String responseMessage = gson.toJson(joinResponse);
-            System.out.println(">>> PORUKA ZA SLANJE: " + responseMessage);
-
-            System.out.println(">>> POČINJE BROADCAST...");
-            int sentCount = 0;
-            synchronized (sessions) {
-                System.out.println(">>> UKUPNO SESIJA: " + sessions.size());
-                for (Session s : sessions) {
-                    System.out.println(">>> PROVJERA SESIJE: " + s.getId());
-                    if (s.isOpen()) {
-                        String sQuizSessionId = sessionToQuizSessionId.get(s);
-                        System.out.println(">>>   - Quiz ID za ovu sesiju: " + sQuizSessionId);
-                        System.out.println(">>>   - Target Quiz ID: " + sessionId);
-                        System.out.println(">>>   - Jednaki? " + sessionId.equals(sQuizSessionId));
-
-                        if (sessionId.equals(sQuizSessionId)) {
-                            s.getBasicRemote().sendText(responseMessage);
-                            sentCount++;
-                            System.out.println(">>>   - POSLANA PORUKA!");
-                        } else {
-                            System.out.println(">>>   - Poruka NIJE poslana (quiz ID se ne slaže)");
-                        }
-                    } else {
-                        System.out.println(">>>   - Sesija zatvorena, preskačem");
-                    }
-                }
-            }
-            System.out.println(">>> BROADCAST ZAVRŠEN. Poslano " + sentCount + " poruka.");
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private void sendJoinRejected(Session session, String reason) {
+        JsonObject rejected = new JsonObject();
+        rejected.addProperty("type", "JOIN_REJECTED");
+        rejected.addProperty("message", reason);
+        OutboundChannel.of(session).send(gson.toJson(rejected));
     }
 
-    private void handleQuizStarting(JsonObject jsonMessage, Session hostSession) {
+    // igrač šalje LEAVE prije nego napusti stranicu; uklanja se samo on sam, bez obzira na id u poruci
+    private void handleLeave(Lobby lobby, Session session) {
+        String participantId = lobby.unbind(session);
+        if (participantId != null)
+            removeFromLobby(lobby, participantId);
+    }
+
+    private void handleQuizStarting(JsonObject jsonMessage, Lobby lobby, Session hostSession) {
         try {
-            String sessionId = jsonMessage.has("sessionId") ? jsonMessage.get("sessionId").getAsString() : null;
+            String sessionId = lobby.getSessionPin();
             String message = jsonMessage.has("message") ? jsonMessage.get("message").getAsString()
-                    : "Host je napustio kviz";
+                    : "Kviz počinje";
 
-            if (sessionId == null) {
-                System.out.println("HOST_LEFT: Nema sessionId");
-                return;
-            }
-
-            System.out.println("QUIZ_STARTING: Šaljem poruku svim participantima u sesiji: " + sessionId);
+            // igrači sad prelaze na stranicu igre i zatvaraju ovu vezu, to nije napuštanje kviza;
+            // učesnici iz čekaonice se upisuju jednim batch-om i igrači prelaze na igru tek kad su u bazi
+            List<QuizParticipant> unsaved = lobby.close();
+            lobby.cancelPendingLeaves();
 
-            Gson gson = new Gson();
-            JsonObject hostLeftMessage = new JsonObject();
-            hostLeftMessage.addProperty("type", "QUIZ_STARTING");
-            hostLeftMessage.addProperty("message", message);
-            hostLeftMessage.addProperty("sessionId", sessionId);
+            JsonObject startingMessage = new JsonObject();
+            startingMessage.addProperty("type", "QUIZ_STARTING");
+            startingMessage.addProperty("message", message);
+            startingMessage.addProperty("sessionId", sessionId);
+            String broadcastMessage = gson.toJson(startingMessage);
 
-            String broadcastMessage = gson.toJson(hostLeftMessage);
-
-            synchronized (sessions) {
-                for (Session s : sessions) {
-                    if (s.isOpen() && !s.equals(hostSession)) {
-                        String sQuizSessionId = sessionToQuizSessionId.get(s);
-                        if (sessionId.equals(sQuizSessionId)) {
-                            s.getBasicRemote().sendText(broadcastMessage);
-                            System.out.println("QUIZ_STARTING poruka poslana sesiji: " + s.getId());
-                        }
-                    }
-                }
-            }
-            try {
+            DbExecutor.run(() -> {
                 QuizParticipantService participantService = new QuizParticipantService();
                 QuizSessionService sessionService = new QuizSessionService();
 
-                Optional<QuizSession> sessionOpt = sessionService.findBySessionPin(sessionId);
-                if (sessionOpt.isPresent()) {
-                    QuizSession quizSession = sessionOpt.get();
-
-                    System.out.println("HOST_LEFT: Brišem sve participante iz sesije: " + sessionId);
-                    participantService.markParticipantsPlaying(quizSession);
-
-                    System.out.println("Zapocinjem sesiju: " + sessionId);
-                    sessionService.startSession(quizSession.getId());
+                QuizSession quizSession = sessionService.findBySessionPin(sessionId)
+                        .orElseThrow(() -> new IllegalStateException("Sesija " + sessionId + " nije pronađena u bazi"));
 
-                    System.out.println("Sesija " + sessionId + " je uspješno zapoceta.");
-                } else {
-                    System.out.println("Sesija " + sessionId + " nije pronađena u bazi");
+                if (!unsaved.isEmpty()) {
+                    try {
+                        participantService.saveAll(unsaved);
+                    } catch (RuntimeException e) {
+                        // generator je možda već dodijelio id-eve redovima koji nisu upisani
+                        unsaved.forEach(participant -> participant.setId(null));
+                        throw e;
+                    }
                 }
-
-            } catch (Exception e) {
-                System.out.println("Greška pri startanju sesije: " + e.getMessage());
-                e.printStackTrace();
-            }
-        } catch (IOException e) {
+                participantService.markParticipantsPlaying(quizSession);
+                sessionService.startSession(quizSession.getId());
+
+                System.out.println("Sesija " + sessionId + " je započeta sa " + unsaved.size() + " novih participanata.");
+            }).whenComplete((ignored, e) -> {
+                if (e != null) {
+                    // bez upisanih učesnika igra ne bi imala kome upisati rezultate, pa čekaonica ostaje otvorena
+                    System.out.println("Greška pri startanju sesije: " + e.getMessage());
+                    e.printStackTrace();
+                    lobby.reopen();
+                    if (hostSession.isOpen())
+                        OutboundChannel.of(hostSession).send(
+                                FrameEncoder.message("ERROR", "Kviz nije moguće pokrenuti, pokušajte ponovo"));
+                    return;
+                }
+                // čekaonica se gasi kad igrači odu, a igra nastaje tek kad se spoje; PIN u međuvremenu ostaje ovdje
+                Cluster.claim(sessionId);
+                // host prelazi na stranicu igre tek kad dobije potvrdu, zato poruku dobija i on
+                broadcast(lobby, broadcastMessage, null);
+            });
+        } catch (Exception e) {
             System.out.println("Greška pri slanju QUIZ_STARTING poruke: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
-    private void handleHostLeft(JsonObject jsonMessage, Session hostSession) {
+    private void handleHostLeft(JsonObject jsonMessage, Lobby lobby, Session hostSession) {
         try {
-            String sessionId = jsonMessage.has("sessionId") ? jsonMessage.get("sessionId").getAsString() : null;
+            String sessionId = lobby.getSessionPin();
             String message = jsonMessage.has("message") ? jsonMessage.get("message").getAsString()
                     : "Host je napustio kviz";
 
-            if (sessionId == null) {
-                System.out.println("HOST_LEFT: Nema sessionId");
-                return;
-            }
-
-            System.out.println("HOST_LEFT: Šaljem poruku svim participantima u sesiji: " + sessionId);
+            // svi učesnici se ionako brišu, pa odlasci igrača nakon ove poruke ne idu u bazu
+            lobby.close();
+            lobby.cancelPendingLeaves();
 
-            Gson gson = new Gson();
             JsonObject hostLeftMessage = new JsonObject();
             hostLeftMessage.addProperty("type", "HOST_LEFT");
             hostLeftMessage.addProperty("message", message);
             hostLeftMessage.addProperty("sessionId", sessionId);
 
-            String broadcastMessage = gson.toJson(hostLeftMessage);
-
-            synchronized (sessions) {
-                for (Session s : sessions) {
-                    if (s.isOpen() && !s.equals(hostSession)) {
-                        String sQuizSessionId = sessionToQuizSessionId.get(s);
-                        if (sessionId.equals(sQuizSessionId)) {
-                            s.getBasicRemote().sendText(broadcastMessage);
-                            System.out.println("HOST_LEFT poruka poslana sesiji: " + s.getId());
-                        }
-                    }
-                }
-            }
+            broadcast(lobby, gson.toJson(hostLeftMessage), hostSession);
 
-            try {
+            DbExecutor.run(() -> {
                 QuizParticipantService participantService = new QuizParticipantService();
                 QuizSessionService sessionService = new QuizSessionService();
 
@@ -239,13 +278,13 @@ public class JoinSocket {
                 } else {
                     System.out.println("HOST_LEFT: Sesija " + sessionId + " nije pronađena u bazi");
                 }
-
-            } catch (Exception e) {
+            }).exceptionally(e -> {
                 System.out.println("HOST_LEFT: Greška pri brisanju sesije iz baze: " + e.getMessage());
                 e.printStackTrace();
-            }
+                return null;
+            });
 
-        } catch (IOException e) {
+        } catch (Exception e) {
             System.out.println("Greška pri slanju HOST_LEFT poruke: " + e.getMessage());
             e.printStackTrace();
         }
@@ -253,55 +292,79 @@ public class JoinSocket {
 
     @OnClose
     public void onClose(Session session) {
-        sessions.remove(session);
-        System.out.println("WebSocket zatvoren: " + session.getId());
+        Lobby lobby = lobbyOf(session);
+        if (lobby == null)
+            return;
+
+        // rok za povratak se bilježi prije odjave konekcije, da se čekaonica ne povuče između
+        String participantId = lobby.unbind(session);
+        if (participantId != null && !lobby.isClosed()) {
+            WheelTimer.Timeout timeout = timers.schedule(() -> leaveLobby(lobby, participantId),
+                    LEAVE_GRACE_MS, TimeUnit.MILLISECONDS);
+            lobby.addPendingLeave(participantId, timeout);
+        }
+        disconnect(lobby, session);
     }
 
-    @OnError
-    public void onError(Session session, Throwable throwable) {
+    private void leaveLobby(Lobby lobby, String participantId) {
+        if (!lobby.removePendingLeave(participantId))
+            return;
 
-        String participantId = sessionToParticipantId.get(session);
-        String quizSessionId = sessionToQuizSessionId.get(session);
+        removeFromLobby(lobby, participantId);
+        retireIfIdle(lobby);
+    }
 
-        if (participantId != null) {
-            try {
-                QuizParticipantService participantService = new QuizParticipantService();
-                participantService.removeParticipant(participantId);
-                System.out.println("Participant uklonjen zbog greške: " + participantId);
-                sessionToParticipantId.remove(session);
-                sessionToQuizSessionId.remove(session);
-                broadcastParticipantLeft(participantId, quizSessionId);
-            } catch (Exception e) {
-                System.out.println("Greška pri uklanjanju participanta: " + e.getMessage());
-            }
+    @OnError
+    public void onError(Session session, Throwable throwable) {
+        Lobby lobby = lobbyOf(session);
+        if (lobby != null) {
+            String participantId = lobby.unbind(session);
+            if (participantId != null)
+                removeFromLobby(lobby, participantId);
+            disconnect(lobby, session);
         }
 
-        sessions.remove(session);
         System.out.println("WebSocket greška: " + throwable.getMessage());
     }
 
-    private void broadcastParticipantLeft(String participantId, String quizSessionId) {
-        try {
-            Gson gson = new Gson();
-            JsonObject leaveMessage = new JsonObject();
-            leaveMessage.addProperty("type", "LEAVE");
-            leaveMessage.addProperty("participantId", participantId);
+    private static Lobby lobbyOf(Session session) {
+        return (Lobby) session.getUserProperties().get(LOBBY_PROPERTY);
+    }
 
-            String message = gson.toJson(leaveMessage);
+    private static void disconnect(Lobby lobby, Session session) {
+        if (session.getUserProperties().remove(LOBBY_PROPERTY) == null)
+            return;
+        lobby.disconnect(session);
+        retireIfIdle(lobby);
+    }
 
-            synchronized (sessions) {
-                for (Session s : sessions) {
-                    if (s.isOpen()) {
-                        String sQuizSessionId = sessionToQuizSessionId.get(s);
+    private static void retireIfIdle(Lobby lobby) {
+        if (lobby.tryRetire())
+            lobbies.remove(lobby.getSessionPin(), lobby);
+    }
 
-                        if (quizSessionId != null && quizSessionId.equals(sQuizSessionId)) {
-                            s.getBasicRemote().sendText(message);
-                        }
-                    }
-                }
+    // red u bazi postoji samo za učesnike koji su bili upisani prije nastanka čekaonice
+    private void removeFromLobby(Lobby lobby, String participantId) {
+        if (lobby.isClosed())
+            return;
+        QuizParticipant removed = lobby.remove(participantId);
+        if (removed == null)
+            return;
+
+        if (removed.getId() != null) {
+            DbExecutor.run(() -> new QuizParticipantService().removeParticipant(participantId))
+                    .exceptionally(e -> {
+                        System.out.println("Greška pri uklanjanju participanta: " + e.getMessage());
+                        return null;
+                    });
+        }
+    }
+
+    private static void broadcast(Lobby lobby, String message, Session except) {
+        for (Session s : lobby.connections()) {
+            if (s.isOpen() && !s.equals(except)) {
+                OutboundChannel.of(s).send(message);
             }
-        } catch (IOException e) {
-            System.out.println("Greška pri slanju LEAVE poruke: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,182 @@
+package servlets;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Plasman jedne igre u treap-u s veličinama podstabala, po bodovima (opadajuće) pa po id-u: promjena bodova
+// i rang su O(log N), prvih K je O(K + log N). Pripada petlji sobe, pa nije thread-safe
+class Leaderboard {
+
+    static final class Standing {
+        final String participantId;
+        final int score;
+        final int rank;
+
+        Standing(String participantId, int score, int rank) {
+            this.participantId = participantId;
+            this.score = score;
+            this.rank = rank;
+        }
+    }
+
+    private static final class Node {
+        final String participantId;
+        final int score;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(String participantId, int score, int priority) {
+            this.participantId = participantId;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<String, Integer> scores = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    // postavlja bodove i vraća novi plasman
+    Standing update(String participantId, int score) {
+        Integer previous = scores.put(participantId, score);
+        if (previous != null) {
+            if (previous == score)
+                return new Standing(participantId, score, rankOf(participantId, score));
+            root = remove(root, participantId, previous);
+        }
+        root = insert(root, new Node(participantId, score, random.nextInt()));
+        return new Standing(participantId, score, rankOf(participantId, score));
+    }
+
+    // null dok igrač nema bodove
+    Standing standing(String participantId) {
+        Integer score = scores.get(participantId);
+        return score != null ? new Standing(participantId, score, rankOf(participantId, score)) : null;
+    }
+
+    void remove(String participantId) {
+        Integer previous = scores.remove(participantId);
+        if (previous != null) {
+            root = remove(root, participantId, previous);
+        }
+    }
+
+    void clear() {
+        scores.clear();
+        root = null;
+    }
+
+    List<Standing> top(int k) {
+        List<Standing> top = new ArrayList<>(Math.min(k, size(root)));
+        collect(root, k, top);
+        return top;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    private void collect(Node node, int k, List<Standing> out) {
+        if (node == null || out.size() >= k)
+            return;
+        collect(node.left, k, out);
+        if (out.size() < k) {
+            out.add(new Standing(node.participantId, node.score, out.size() + 1));
+            collect(node.right, k, out);
+        }
+    }
+
+    private int rankOf(String participantId, int score) {
+        int ahead = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(participantId, score, node);
+            if (cmp == 0)
+                return ahead + size(node.left) + 1;
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                ahead += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return ahead + 1;
+    }
+
+    // veći rezultat ide naprijed; isti rezultat se razvrstava po participantId da poredak bude stabilan
+    private static int compare(String participantId, int score, Node node) {
+        if (score != node.score)
+            return score > node.score ? -1 : 1;
+        return participantId.compareTo(node.participantId);
+    }
+
+    private Node insert(Node node, Node fresh) {
+        if (node == null)
+            return fresh;
+
+        if (compare(fresh.participantId, fresh.score, node) < 0) {
+            node.left = insert(node.left, fresh);
+            if (node.left.priority > node.priority)
+                node = rotateRight(node);
+        } else {
+            node.right = insert(node.right, fresh);
+            if (node.right.priority > node.priority)
+                node = rotateLeft(node);
+        }
+        return update(node);
+    }
+
+    private Node remove(Node node, String participantId, int score) {
+        if (node == null)
+            return null;
+
+        int cmp = compare(participantId, score, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, participantId, score);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, participantId, score);
+        } else {
+            if (node.left == null)
+                return node.right;
+            if (node.right == null)
+                return node.left;
+
+            if (node.left.priority > node.right.priority) {
+                node = rotateRight(node);
+                node.right = remove(node.right, participantId, score);
+            } else {
+                node = rotateLeft(node);
+                node.left = remove(node.left, participantId, score);
+            }
+        }
+        return update(node);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = update(node);
+        return update(left);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = update(node);
+        return update(right);
+    }
+
+    private static Node update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+}
@@ -0,0 +1,208 @@
+package servlets;
+
+import jakarta.websocket.Session;
+import model.QuizParticipant;
+import model.QuizSession;
+import util.WheelTimer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Čekaonica jedne sesije: igrači i konekcije. Prijave i odjave su u memoriji; sesija i već upisani učesnici se
+// učitaju jednom, a novi učesnici se upišu odjednom kad domaćin pokrene kviz.
+// Spisak ima verziju: konekcija dobije ROSTER pa JOIN/LEAVE sa sljedećom verzijom, poslane pod istim
+// zaključavanjem, pa ih svi vide istim redom. Prazna čekaonica se povlači i registar za PIN pravi novu
+class Lobby {
+
+    private static final int RETIRED = -1;
+
+    private final String sessionPin;
+    private volatile CompletableFuture<Optional<QuizSession>> session;
+    // po participantId, redom prijave; nesačuvani učesnici imaju id == null
+    private final Map<String, QuizParticipant> participants = new LinkedHashMap<>();
+    private final Set<String> takenNames = new HashSet<>();
+    private long version;
+    private boolean closed;
+
+    private final Set<Session> connections = ConcurrentHashMap.newKeySet();
+    private final Map<Session, String> participantBySession = new ConcurrentHashMap<>();
+    // konekcije čija prijava još čeka na sesiju; druga prijava s iste konekcije se tada odbacuje
+    private final Set<Session> joining = ConcurrentHashMap.newKeySet();
+    private final Map<String, WheelTimer.Timeout> pendingLeaves = new ConcurrentHashMap<>();
+    // broj konekcija; RETIRED kad je čekaonica uklonjena iz registra
+    private final AtomicInteger members = new AtomicInteger();
+
+    Lobby(String sessionPin) {
+        this.sessionPin = sessionPin;
+    }
+
+    String getSessionPin() {
+        return sessionPin;
+    }
+
+    // učitava sesiju pri prvom pozivu; neuspjelo učitavanje ponavlja sljedeći pozivalac
+    synchronized CompletableFuture<Optional<QuizSession>> session(Supplier<CompletableFuture<Optional<QuizSession>>> loader) {
+        if (session == null || session.isCompletedExceptionally())
+            session = loader.get();
+        return session;
+    }
+
+    boolean isLoaded() {
+        CompletableFuture<Optional<QuizSession>> loaded = session;
+        return loaded != null && loaded.isDone() && !loaded.isCompletedExceptionally();
+    }
+
+    // false ako je čekaonica povučena, pa je pozivalac mora ponovo potražiti
+    boolean connect(Session socket) {
+        for (;;) {
+            int count = members.get();
+            if (count == RETIRED)
+                return false;
+            if (members.compareAndSet(count, count + 1))
+                break;
+        }
+        connections.add(socket);
+        return true;
+    }
+
+    // učesnik vezan za konekciju, ili null ako se nije prijavila
+    String disconnect(Session socket) {
+        String participantId = participantBySession.remove(socket);
+        if (connections.remove(socket))
+            members.decrementAndGet();
+        return participantId;
+    }
+
+    // povlači čekaonicu ako niko nije spojen niti se vraća
+    boolean tryRetire() {
+        return pendingLeaves.isEmpty() && members.compareAndSet(0, RETIRED);
+    }
+
+    Set<Session> connections() {
+        return connections;
+    }
+
+    // false ako konekcija već ima učesnika
+    boolean bind(Session socket, String participantId) {
+        return participantBySession.putIfAbsent(socket, participantId) == null;
+    }
+
+    boolean isBound(Session socket) {
+        return participantBySession.containsKey(socket);
+    }
+
+    boolean reserve(Session socket) {
+        return joining.add(socket);
+    }
+
+    void release(Session socket) {
+        joining.remove(socket);
+    }
+
+    String unbind(Session socket) {
+        return participantBySession.remove(socket);
+    }
+
+    void addPendingLeave(String participantId, WheelTimer.Timeout timeout) {
+        pendingLeaves.put(participantId, timeout);
+    }
+
+    boolean removePendingLeave(String participantId) {
+        return pendingLeaves.remove(participantId) != null;
+    }
+
+    int pendingLeaveCount() {
+        return pendingLeaves.size();
+    }
+
+    void cancelPendingLeaves() {
+        pendingLeaves.values().forEach(WheelTimer.Timeout::cancel);
+        pendingLeaves.clear();
+    }
+
+    // već upisani učesnici, da njihova imena ostanu zauzeta
+    synchronized void seed(List<QuizParticipant> stored) {
+        for (QuizParticipant participant : stored) {
+            participants.put(participant.getParticipantId(), participant);
+            takenNames.add(normalize(participant.getParticipantName()));
+        }
+    }
+
+    // prijavljuje igrača svima; null ako je ime zauzeto ili je čekaonica zatvorena
+    synchronized QuizParticipant admit(QuizSession quizSession, String participantName, String timestamp) {
+        if (closed || !takenNames.add(normalize(participantName)))
+            return null;
+
+        QuizParticipant participant = new QuizParticipant(quizSession, participantName, UUID.randomUUID().toString());
+        participants.put(participant.getParticipantId(), participant);
+        publish(FrameEncoder.joined(sessionPin, ++version, participant, timestamp));
+        return participant;
+    }
+
+    // odjavljuje igrača svima; null ako nije bio u čekaonici
+    synchronized QuizParticipant remove(String participantId) {
+        QuizParticipant removed = participants.remove(participantId);
+        if (removed != null) {
+            takenNames.remove(normalize(removed.getParticipantName()));
+            publish(FrameEncoder.left(++version, participantId));
+        }
+        return removed;
+    }
+
+    // cijeli spisak jednoj konekciji, s trenutnom verzijom
+    synchronized void sendRoster(Session socket) {
+        if (socket.isOpen())
+            OutboundChannel.of(socket).send(FrameEncoder.roster(sessionPin, version, new ArrayList<>(participants.values())));
+    }
+
+    private void publish(Frame frame) {
+        for (Session socket : connections) {
+            if (socket.isOpen())
+                OutboundChannel.of(socket).send(frame);
+        }
+    }
+
+    synchronized List<QuizParticipant> participants() {
+        return new ArrayList<>(participants.values());
+    }
+
+    // kviz je počeo ili je domaćin otišao; vraća učesnike koje još treba upisati
+    synchronized List<QuizParticipant> close() {
+        closed = true;
+        return unsaved();
+    }
+
+    // kviz nije uspio početi, pa se prijave opet primaju
+    synchronized void reopen() {
+        closed = false;
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    // učesnici koji postoje samo u memoriji
+    private List<QuizParticipant> unsaved() {
+        List<QuizParticipant> unsaved = new ArrayList<>();
+        for (QuizParticipant participant : participants.values()) {
+            if (participant.getId() == null)
+                unsaved.add(participant);
+        }
+        return unsaved;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,108 @@
+package servlets;
+
+import cluster.Cluster;
+import com.google.gson.Gson;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import service.SnapshotWriter;
+import util.DbExecutor;
+import util.JPAUtil;
+import util.PoolMetrics;
+import util.WheelTimer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@WebServlet("/admin/superadmin/metrics")
+public class MetricsServlet extends HttpServlet {
+
+    private Gson gson;
+
+    @Override
+    public void init() throws ServletException {
+        gson = new Gson();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        if (!isAuthorized(request)) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            sendJsonResponse(response, "{\"error\": \"Access denied. Superadmin privileges required.\"}");
+            return;
+        }
+
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("connectionPool", PoolMetrics.snapshot());
+            metrics.put("secondLevelCache", cacheMetrics());
+            metrics.put("timers", WheelTimer.shared().snapshot());
+            metrics.put("dbExecutor", DbExecutor.snapshot());
+            metrics.put("lobbies", JoinSocket.lobbyCount());
+            metrics.put("cluster", Cluster.snapshot());
+            metrics.put("snapshots", SnapshotWriter.getInstance().snapshot());
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendJsonResponse(response, gson.toJson(metrics));
+
+        } catch (Exception e) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            sendJsonResponse(response, "{\"error\": \"Failed to collect metrics: " + e.getMessage() + "\"}");
+        }
+    }
+
+    private Map<String, Object> cacheMetrics() {
+        Statistics statistics = JPAUtil.getStatistics();
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("hits", statistics.getSecondLevelCacheHitCount());
+        cache.put("misses", statistics.getSecondLevelCacheMissCount());
+        cache.put("puts", statistics.getSecondLevelCachePutCount());
+        cache.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        cache.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        cache.put("queryCachePuts", statistics.getQueryCachePutCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            if (region == null)
+                continue;
+
+            Map<String, Object> regionMetrics = new LinkedHashMap<>();
+            regionMetrics.put("hits", region.getHitCount());
+            regionMetrics.put("misses", region.getMissCount());
+            regionMetrics.put("puts", region.getPutCount());
+            regionMetrics.put("elementsInMemory", region.getElementCountInMemory());
+            regions.put(regionName, regionMetrics);
+        }
+        cache.put("regions", regions);
+        return cache;
+    }
+
+    private boolean isAuthorized(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return false;
+        }
+
+        String userRole = (String) session.getAttribute("user");
+        return "superadmin".equals(userRole);
+    }
+
+    private void sendJsonResponse(HttpServletResponse response, String jsonString) throws IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        try (PrintWriter out = response.getWriter()) {
+            out.print(jsonString);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package servlets;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Pun red prvo odbacuje zastarjele SCORE_UPDATE poruke (novija ionako nosi cijelu tabelu);
+// klijent koji ni tada ne stiže čitati se prekida
+class OutboundChannel implements SendHandler {
+
+    private static final String USER_PROPERTY = "outboundChannel";
+    static final int QUEUE_CAPACITY = 64;
+    private static final long SEND_TIMEOUT_MS = 10_000;
+
+    private final Session session;
+    private final boolean binary;
+    private final Deque<Frame> queue = new ArrayDeque<>();
+    private boolean sending;
+    private boolean closed;
+
+    private OutboundChannel(Session session) {
+        this.session = session;
+        this.binary = BinaryFrames.SUBPROTOCOL.equals(session.getNegotiatedSubprotocol());
+        session.getAsyncRemote().setSendTimeout(SEND_TIMEOUT_MS);
+    }
+
+    static OutboundChannel of(Session session) {
+        return (OutboundChannel) session.getUserProperties()
+                .computeIfAbsent(USER_PROPERTY, k -> new OutboundChannel(session));
+    }
+
+    void send(String text) {
+        send(Frame.of(text));
+    }
+
+    void send(Frame frame) {
+        boolean overflow = false;
+
+        synchronized (this) {
+            if (closed)
+                return;
+
+            if (sending) {
+                if (queue.size() >= QUEUE_CAPACITY)
+                    dropStale(frame);
+
+                if (queue.size() >= QUEUE_CAPACITY) {
+                    overflow = true;
+                    closed = true;
+                    queue.clear();
+                } else {
+                    queue.add(frame);
+                    return;
+                }
+            } else {
+                sending = true;
+            }
+        }
+
+        if (overflow) {
+            disconnect("Outbound queue overflow");
+            return;
+        }
+
+        dispatch(frame);
+    }
+
+    // ostaje samo najnoviji SCORE_UPDATE: onaj koji upravo stiže, ili zadnji koji već čeka u redu
+    private void dropStale(Frame incoming) {
+        Frame latest = null;
+        if (!incoming.coalescible) {
+            for (Frame queued : queue) {
+                if (queued.coalescible)
+                    latest = queued;
+            }
+        }
+        Frame keep = latest;
+        queue.removeIf(queued -> queued.coalescible && queued != keep);
+    }
+
+    @Override
+    public void onResult(SendResult result) {
+        if (!result.isOK()) {
+            System.err.println("Error sending message to " + session.getId() + ": "
+                    + (result.getException() != null ? result.getException().getMessage() : "unknown"));
+            fail();
+            return;
+        }
+
+        Frame next;
+        synchronized (this) {
+            next = closed ? null : queue.poll();
+            if (next == null) {
+                sending = false;
+                return;
+            }
+        }
+
+        dispatch(next);
+    }
+
+    private void dispatch(Frame frame) {
+        try {
+            if (binary && frame.binary != null) {
+                session.getAsyncRemote().sendBinary(frame.binary.duplicate(), this);
+            } else {
+                session.getAsyncRemote().sendText(frame.text, this);
+            }
+        } catch (IllegalStateException e) {
+            System.err.println("Error sending message to " + session.getId() + ": " + e.getMessage());
+            fail();
+        }
+    }
+
+    private void fail() {
+        synchronized (this) {
+            closed = true;
+            sending = false;
+            queue.clear();
+        }
+        disconnect("Send failed");
+    }
+
+    private void disconnect(String reason) {
+        if (!session.isOpen())
+            return;
+
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, reason));
+        } catch (IOException e) {
+            System.err.println("Error closing session " + session.getId() + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,58 +1,173 @@
 package servlets;
 
+import cluster.Cluster;
 import jakarta.websocket.*;
 import jakarta.websocket.server.PathParam;
 import jakarta.websocket.server.ServerEndpoint;
 import model.*;
 import service.*;
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import util.AppConfig;
+import util.DbExecutor;
+import util.WheelTimer;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Function;
 
-@ServerEndpoint("/playingQuiz/{sessionPin}/{participantId}/{quizId}")
+@ServerEndpoint(value = "/playingQuiz/{sessionPin}/{participantId}/{quizId}",
+        subprotocols = { BinaryFrames.SUBPROTOCOL })
 public class PlayingSocket {
 
-    private static final Set<Session> sessions = Collections.synchronizedSet(new HashSet<>());
-    private static final Map<Session, String> sessionToParticipantId = Collections.synchronizedMap(new HashMap<>());
-    private static final Map<Session, String> sessionToQuizSessionId = Collections.synchronizedMap(new HashMap<>());
+    private static final RoomRegistry<Session> rooms = new RoomRegistry<>();
+    private static final Map<Session, String> sessionToParticipantId = new ConcurrentHashMap<>();
+    private static final Map<Session, String> sessionToQuizSessionId = new ConcurrentHashMap<>();
 
     private static final Map<String, GameState> gameStates = new ConcurrentHashMap<>();
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(10);
+    private static final WheelTimer timers = WheelTimer.shared();
+    private static final ScoreWriter scoreWriter = ScoreWriter.getInstance();
+    private static final SnapshotWriter snapshotWriter = SnapshotWriter.getInstance();
     private static final Gson gson = new Gson();
 
-    private static class GameState {
-        final Set<String> participants = ConcurrentHashMap.newKeySet();
-        final Set<String> answeredParticipants = ConcurrentHashMap.newKeySet();
-        final Map<String, Integer> scores = new ConcurrentHashMap<>();
-        final Map<String, List<String>> questionResponses = new ConcurrentHashMap<>();
+    private static final int LEADERBOARD_TOP = 10;
+    private static final long TICK_MS = Math.max(10, AppConfig.getLong("trivia.game.tickMs", 100));
+    private static final long ANSWER_GRACE_MS = AppConfig.getLong("trivia.game.answerGraceMs", 1500);
+    private static final long REVEAL_MS = AppConfig.getLong("trivia.game.revealMs", 4000);
+    private static final long RECONNECT_GRACE_MS = AppConfig.getLong("trivia.game.reconnectGraceMs", 30000);
+    private static final long SNAPSHOT_MAX_AGE_MS = AppConfig.getLong("trivia.snapshot.maxAgeMs", 600000);
+    private static final SecureRandom tokens = new SecureRandom();
+
+    private static final ScoringMode scoringMode = scoringMode();
+    private static final int minSharePercent =
+            Math.max(0, Math.min(100, AppConfig.getInt("trivia.scoring.minSharePercent", 50)));
+
+    static {
+        Cluster.registerRooms(gameStates::keySet);
+    }
+
+    // kontejner pravi endpoint bez argumenata; testovi podmeću svoj izvor kviza
+    private final Function<Long, CompletableFuture<Optional<CompiledQuiz>>> quizLoader;
+
+    public PlayingSocket() {
+        this(quizId -> DbExecutor.supply(() -> new CompiledQuizService().getCompiledQuiz(quizId)));
+    }
+
+    PlayingSocket(Function<Long, CompletableFuture<Optional<CompiledQuiz>>> quizLoader) {
+        this.quizLoader = quizLoader;
+    }
+
+    private static final class PendingResult {
+        final Frame frame;
+        final boolean isCorrect;
+        final int pointsEarned;
+
+        PendingResult(Frame frame, boolean isCorrect, int pointsEarned) {
+            this.frame = frame;
+            this.isCorrect = isCorrect;
+            this.pointsEarned = pointsEarned;
+        }
+    }
 
-        List<Question> questions = new ArrayList<>();
+    // Stanje sobe mijenja samo njena petlja; handleri i tajmeri joj šalju komande preko loop.execute
+    private static class GameState {
+        final String sessionPin;
+        final RoomLoop loop = new RoomLoop();
+        final Set<String> participants = new HashSet<>();
+        final Set<String> answeredParticipants = new HashSet<>();
+        final Map<String, ParticipantScore> scores = new HashMap<>();
+        final Leaderboard leaderboard = new Leaderboard();
+        final TickBatch tickBatch = new TickBatch();
+        final Map<Long, Set<String>> questionResponses = new HashMap<>();
+        // ishodi odgovora na trenutno pitanje; bodovi su već upisani, ali se ne otkrivaju dok se pitanje ne zatvori
+        final Map<String, PendingResult> pendingResults = new LinkedHashMap<>();
+        // igrač ostaje u participants dok mu ne istekne rok za povratak; connections su samo trenutno spojeni
+        final Map<String, Session> connections = new HashMap<>();
+        final Map<String, String> resumeTokens = new HashMap<>();
+        // token s kojim se host vraća nakon prekida; izdaje se prvoj host konekciji u igri
+        String hostToken;
+        final Map<String, WheelTimer.Timeout> reconnectDeadlines = new HashMap<>();
+
+        CompiledQuiz quiz;
+        long quizFingerprint;
+        List<Frame> questionFrames = new ArrayList<>();
+        List<Frame> hostQuestionFrames = new ArrayList<>();
+        long[] dispatchedAt = new long[0];
+        long questionDeadline;
+        // pitanje currentQuestionIndex je otvoreno za odgovore dok je questionOpen true;
+        // timer je ili rok za odgovore ili pauza prije sljedećeg pitanja
         int currentQuestionIndex = 0;
-        ScheduledFuture<?> timer;
+        boolean questionOpen;
+        WheelTimer.Timeout timer;
+        WheelTimer.Timeout tick;
+        WheelTimer.Timeout snapshots;
+        long snapshotSequence;
+
+        GameState(String sessionPin) {
+            this.sessionPin = sessionPin;
+        }
 
         void reset() {
             answeredParticipants.clear();
+            pendingResults.clear();
+        }
+
+        void cancelTimer() {
+            if (timer != null) {
+                timer.cancel();
+                timer = null;
+            }
+        }
+
+        void cancelTick() {
+            if (tick != null) {
+                tick.cancel();
+                tick = null;
+            }
+        }
+
+        void cancelSnapshots() {
+            if (snapshots != null) {
+                snapshots.cancel();
+                snapshots = null;
+            }
+            snapshotWriter.remove(sessionPin);
         }
 
         void cleanup() {
-            if (timer != null)
-                timer.cancel(false);
+            cancelTimer();
+            cancelTick();
+            cancelSnapshots();
+            reconnectDeadlines.values().forEach(WheelTimer.Timeout::cancel);
+            reconnectDeadlines.clear();
+            leaderboard.clear();
+            loop.close();
         }
     }
 
     @OnOpen
     public void onOpen(Session session, @PathParam("sessionPin") String sessionPin,
             @PathParam("participantId") String participantId) {
-        sessions.add(session);
+        if (!gameStates.containsKey(sessionPin) && RoomRouting.redirect(session, sessionPin))
+            return;
+
         sessionToQuizSessionId.put(session, sessionPin);
         sessionToParticipantId.put(session, participantId);
-
-        if (!"HOST".equals(participantId)) {
-            gameStates.computeIfAbsent(sessionPin, k -> new GameState()).participants.add(participantId);
+        rooms.join(sessionPin, session);
+
+        List<String> resume = session.getRequestParameterMap().get("resume");
+        String resumeToken = resume != null && !resume.isEmpty() ? resume.get(0) : null;
+        if (!isHost(participantId)) {
+            GameState state = gameStates.computeIfAbsent(sessionPin, GameState::new);
+            state.loop.execute(() -> connect(session, state, participantId, resumeToken));
+        } else {
+            // prije početka igre host nema sobu; token dobija kad igra krene
+            GameState state = gameStates.get(sessionPin);
+            if (state != null)
+                state.loop.execute(() -> connectHost(session, state, resumeToken));
         }
 
         System.out.println("Connected: " + participantId + " to session: " + sessionPin);
@@ -60,6 +175,8 @@ public class PlayingSocket {
 
     @OnMessage
     public void onMessage(String message, Session session) {
+        // vrijeme prijema se bilježi prije parsiranja, da trajanje obrade ne ulazi u vrijeme odgovora
+        long receivedAt = System.nanoTime();
         try {
             JsonObject json = gson.fromJson(message, JsonObject.class);
             String type = json.has("type") ? json.get("type").getAsString() : "";
@@ -67,7 +184,11 @@ public class PlayingSocket {
             switch (type) {
                 case "START_TIMER" -> handleStartTimer(json, session);
                 case "START_QUESTIONS" -> handleStartQuestions(json, session);
-                case "SUBMIT_ANSWER" -> handleSubmitAnswer(json, session);
+                case "SUBMIT_ANSWER" -> handleSubmitAnswer(session,
+                        Long.parseLong(json.get("questionId").getAsString()),
+                        json.has("answerId") ? Long.valueOf(json.get("answerId").getAsString()) : null,
+                        json.has("text") ? json.get("text").getAsString() : null,
+                        receivedAt);
                 case "PARTICIPANT_LEFT" -> handleParticipantLeft(json, session);
                 case "HOST_LEFT" -> handleHostLeft(json, session);
                 case "HOST_NEXT_QUESTION" -> handleHostNextQuestion(json, session);
@@ -77,23 +198,33 @@ public class PlayingSocket {
         }
     }
 
+    // klijenti s dogovorenim binarnim protokolom šalju odgovore kao binarne okvire, ostalo ostaje JSON
+    @OnMessage
+    public void onBinaryMessage(ByteBuffer message, Session session) {
+        long receivedAt = System.nanoTime();
+        try {
+            if (BinaryFrames.opcode(message) == BinaryFrames.SUBMIT_ANSWER) {
+                BinaryFrames.Submission submission = BinaryFrames.decodeSubmitAnswer(message);
+                handleSubmitAnswer(session, submission.questionId, submission.answerId, submission.text, receivedAt);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error processing binary message: " + e.getMessage());
+        }
+    }
+
     @OnClose
     public void onClose(Session session) {
         String sessionPin = sessionToQuizSessionId.get(session);
         String participantId = sessionToParticipantId.get(session);
 
-        if (sessionPin != null && participantId != null && !"HOST".equals(participantId)) {
+        if (sessionPin != null && participantId != null && !isHost(participantId)) {
             GameState state = gameStates.get(sessionPin);
             if (state != null) {
-                state.participants.remove(participantId);
-                if (state.participants.isEmpty()) {
-                    state.cleanup();
-                    gameStates.remove(sessionPin);
-                }
+                state.loop.execute(() -> disconnect(session, sessionPin, state, participantId));
             }
         }
 
-        sessions.remove(session);
+        rooms.leave(sessionPin, session);
         sessionToQuizSessionId.remove(session);
         sessionToParticipantId.remove(session);
     }
@@ -104,76 +235,449 @@ public class PlayingSocket {
         System.err.println("WebSocket error: " + throwable.getMessage());
     }
 
+    private void connect(Session session, GameState state, String participantId, String resumeToken) {
+        String token = state.resumeTokens.get(participantId);
+        if (token != null && !token.equals(resumeToken)) {
+            // igrač je već u sobi, a ova konekcija ne zna njegov token
+            closeQuietly(session, CloseReason.CloseCodes.VIOLATED_POLICY, "Invalid resume token");
+            return;
+        }
+
+        boolean resumed = token != null;
+        if (!resumed) {
+            token = newResumeToken();
+            state.resumeTokens.put(participantId, token);
+        }
+
+        Session previous = state.connections.put(participantId, session);
+        if (previous != null && previous != session)
+            closeQuietly(previous, CloseReason.CloseCodes.NORMAL_CLOSURE, "Replaced by a newer connection");
+        WheelTimer.Timeout deadline = state.reconnectDeadlines.remove(participantId);
+        if (deadline != null)
+            deadline.cancel();
+        state.participants.add(participantId);
+
+        OutboundChannel channel = OutboundChannel.of(session);
+        channel.send(FrameEncoder.session(token));
+        if (resumed)
+            sendCatchUp(channel, state, participantId);
+    }
+
+    private void connectHost(Session session, GameState state, String resumeToken) {
+        if (state.hostToken != null && !state.hostToken.equals(resumeToken)) {
+            closeQuietly(session, CloseReason.CloseCodes.VIOLATED_POLICY, "Invalid resume token");
+            return;
+        }
+
+        OutboundChannel channel = OutboundChannel.of(session);
+        if (state.hostToken == null) {
+            state.hostToken = newResumeToken();
+            channel.send(FrameEncoder.session(state.hostToken));
+            return;
+        }
+        sendHostCatchUp(channel, state);
+    }
+
+    // host koji se vratio dobija trenutno pitanje s odgovorima, tabelu i preostalo vrijeme
+    private void sendHostCatchUp(OutboundChannel channel, GameState state) {
+        CompiledQuiz quiz = state.quiz;
+        if (quiz == null || state.currentQuestionIndex >= quiz.getQuestionCount())
+            return;
+        int index = state.currentQuestionIndex;
+        if (state.questionOpen)
+            channel.send(state.hostQuestionFrames.get(index));
+        if (state.leaderboard.size() > 0)
+            channel.send(scoreUpdate(state));
+        long remainingMs = state.questionOpen
+                ? Math.max(0, (state.questionDeadline - System.nanoTime()) / 1_000_000)
+                : 0;
+        channel.send(FrameEncoder.catchUp(quiz, index, state.questionOpen, remainingMs, false, 0, 0,
+                state.participants.size()));
+    }
+
+    // host konekcije otvorene prije početka igre dobijaju token čim soba dobije kviz
+    private void issueHostToken(String sessionPin, GameState state) {
+        if (state.hostToken != null)
+            return;
+        state.hostToken = newResumeToken();
+        Frame frame = FrameEncoder.session(state.hostToken);
+        for (Session s : rooms.members(sessionPin)) {
+            if (s.isOpen() && isHost(sessionToParticipantId.get(s)))
+                OutboundChannel.of(s).send(frame);
+        }
+    }
+
+    // stranica čekaonice otvara igru s participantId=host, pa se ne razlikuju velika i mala slova
+    private static boolean isHost(String participantId) {
+        return "HOST".equalsIgnoreCase(participantId);
+    }
+
+    private static String newResumeToken() {
+        byte[] bytes = new byte[16];
+        tokens.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // povratak ne dira bazu: sve što igraču treba je već u stanju sobe
+    private void sendCatchUp(OutboundChannel channel, GameState state, String participantId) {
+        CompiledQuiz quiz = state.quiz;
+        if (quiz == null || state.currentQuestionIndex >= quiz.getQuestionCount())
+            return;
+
+        int index = state.currentQuestionIndex;
+        if (state.questionOpen)
+            channel.send(state.questionFrames.get(index));
+
+        long remainingMs = state.questionOpen
+                ? Math.max(0, (state.questionDeadline - System.nanoTime()) / 1_000_000)
+                : 0;
+        Leaderboard.Standing standing = state.leaderboard.standing(participantId);
+        channel.send(FrameEncoder.catchUp(quiz, index, state.questionOpen, remainingMs,
+                state.answeredParticipants.contains(participantId),
+                revealedScore(state, participantId),
+                standing != null ? standing.rank : 0,
+                state.participants.size()));
+    }
+
+    private void disconnect(Session session, String sessionPin, GameState state, String participantId) {
+        // stara konekcija koja se zatvara nakon što ju je zamijenila nova ne pokreće rok
+        if (state.connections.get(participantId) != session)
+            return;
+
+        state.connections.remove(participantId);
+        state.reconnectDeadlines.put(participantId, timers.schedule(
+                () -> state.loop.execute(() -> expireReconnect(sessionPin, state, participantId)),
+                RECONNECT_GRACE_MS, TimeUnit.MILLISECONDS));
+        checkAllAnswered(sessionPin, state);
+    }
+
+    private void expireReconnect(String sessionPin, GameState state, String participantId) {
+        if (state.reconnectDeadlines.remove(participantId) == null)
+            return;
+
+        state.participants.remove(participantId);
+        state.resumeTokens.remove(participantId);
+        // bodovi su već u bazi; s tabele i iz SCORE_UPDATE igrač izlazi zajedno sa sobom
+        state.scores.remove(participantId);
+        state.leaderboard.remove(participantId);
+        DbExecutor.run(() -> {
+            new QuizParticipantService().updateParticipantStatus(participantId, ParticipantStatus.DISCONNECTED);
+            broadcastToSession(FrameEncoder.participantLeft(participantId), sessionPin);
+        }).exceptionally(e -> {
+            System.err.println("Error handling participant left: " + e.getMessage());
+            return null;
+        });
+
+        if (state.participants.isEmpty()) {
+            state.cleanup();
+            gameStates.remove(sessionPin, state);
+        } else {
+            checkAllAnswered(sessionPin, state);
+        }
+    }
+
+    private static void closeQuietly(Session session, CloseReason.CloseCodes code, String reason) {
+        try {
+            session.close(new CloseReason(code, reason));
+        } catch (IOException e) {
+            System.err.println("Error closing session: " + e.getMessage());
+        }
+    }
+
     private void handleStartTimer(JsonObject json, Session session) {
         String sessionPin = sessionToQuizSessionId.get(session);
         if (sessionPin != null) {
-            broadcastToSession(gson.toJson(json), sessionPin);
+            broadcastToSession(Frame.of(gson.toJson(json)), sessionPin);
         }
     }
 
     private void handleStartQuestions(JsonObject json, Session session) {
         String sessionPin = sessionToQuizSessionId.get(session);
-        String quizId = json.get("quizId").getAsString();
+        if (sessionPin == null || !isHost(sessionToParticipantId.get(session)))
+            return;
+        long quizId = Long.parseLong(json.get("quizId").getAsString());
+
+        // učitavanje kviza može čekati na bazu, pa soba dobija gotov kviz tek kad stigne
+        quizLoader.apply(quizId)
+                .whenComplete((quizOpt, error) -> {
+                    if (error != null) {
+                        System.err.println("Error starting questions: " + error.getMessage());
+                    } else {
+                        startQuestions(sessionPin, quizOpt);
+                    }
+                });
+    }
 
+    private void startQuestions(String sessionPin, Optional<CompiledQuiz> quizOpt) {
         try {
-            QuizService quizService = new QuizService();
-            QuestionService questionService = new QuestionService();
-
-            Optional<Quiz> quizOpt = quizService.findQuizById(Long.parseLong(quizId));
             if (quizOpt.isEmpty()) {
                 sendError(sessionPin, "Quiz not found");
                 return;
             }
 
-            List<Question> questions = questionService.findQuestionsByQuizWithAnswers(quizOpt.get());
-            if (questions.isEmpty()) {
+            CompiledQuiz quiz = quizOpt.get();
+            if (quiz.getQuestionCount() == 0) {
                 sendError(sessionPin, "No questions found");
                 return;
             }
 
-            questions.sort(Comparator.comparingInt(Question::getQuestionOrder));
+            List<Frame> questionFrames = new ArrayList<>(quiz.getQuestionCount());
+            List<Frame> hostQuestionFrames = new ArrayList<>(quiz.getQuestionCount());
+            for (int i = 0; i < quiz.getQuestionCount(); i++) {
+                questionFrames.add(FrameEncoder.question(quiz, i, false));
+                hostQuestionFrames.add(FrameEncoder.question(quiz, i, true));
+            }
 
-            GameState state = gameStates.computeIfAbsent(sessionPin, k -> new GameState());
-            state.questions = questions;
-            state.currentQuestionIndex = 0;
+            GameState state = gameStates.computeIfAbsent(sessionPin, GameState::new);
+            state.loop.execute(() -> {
+                state.quiz = quiz;
+                state.quizFingerprint = fingerprint(quiz);
+                state.questionFrames = questionFrames;
+                state.hostQuestionFrames = hostQuestionFrames;
+                state.dispatchedAt = new long[quiz.getQuestionCount()];
+                startTimers(sessionPin, state);
+                issueHostToken(sessionPin, state);
+                state.currentQuestionIndex = 0;
 
-            sendQuestion(sessionPin, 0);
+                openQuestion(sessionPin, state, 0);
+            });
 
         } catch (Exception e) {
             System.err.println("Error starting questions: " + e.getMessage());
         }
     }
 
-    private void handleSubmitAnswer(JsonObject json, Session session) {
-        String participantId = json.get("participantId").getAsString();
-        if ("HOST".equals(participantId))
+    private void startTimers(String sessionPin, GameState state) {
+        if (state.tick == null) {
+            state.tick = timers.scheduleAtFixedRate(
+                    () -> state.loop.execute(() -> flushTick(sessionPin, state)),
+                    TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        }
+        if (state.snapshots == null && snapshotWriter.isEnabled()) {
+            long interval = snapshotWriter.getIntervalMillis();
+            state.snapshots = timers.scheduleAtFixedRate(
+                    () -> state.loop.execute(() -> captureSnapshot(state)),
+                    interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // na petlji se samo kopira stanje, srazmjerno broju igrača; kodiranje i pisanje radi snapshot-writer
+    private static void captureSnapshot(GameState state) {
+        if (state.quiz == null || state.snapshots == null)
+            return;
+
+        Set<String> responses = state.questionOpen
+                ? state.questionResponses.getOrDefault(state.quiz.getQuestionId(state.currentQuestionIndex), Set.of())
+                : Set.of();
+        List<GameSnapshot.Player> players = new ArrayList<>(state.participants.size());
+        for (String participantId : state.participants) {
+            ParticipantScore score = state.scores.get(participantId);
+            players.add(new GameSnapshot.Player(participantId, state.resumeTokens.get(participantId),
+                    responses.contains(participantId), score != null ? score.snapshot() : null));
+        }
+
+        long remainingMs = state.questionOpen
+                ? Math.max(0, (state.questionDeadline - System.nanoTime()) / 1_000_000)
+                : 0;
+        snapshotWriter.offer(new GameSnapshot(state.sessionPin, state.quiz.getQuizId(), state.quizFingerprint,
+                ++state.snapshotSequence, System.currentTimeMillis(), state.currentQuestionIndex,
+                state.questionOpen, remainingMs, state.hostToken, players));
+    }
+
+    // vraća sobe koje su igrale kad je čvor stao, iz zadnjih snimaka: igrači zadržavaju bodove i tokene i imaju
+    // uobičajeni rok za povratak, a otvoreno pitanje nastavlja s preostalim vremenom. Vraća broj soba
+    public static int restoreRooms() {
+        PlayingSocket handler = new PlayingSocket();
+        long now = System.currentTimeMillis();
+        int restored = 0;
+
+        for (GameSnapshot snapshot : snapshotWriter.loadAll().values()) {
+            if (now - snapshot.capturedAtMillis > SNAPSHOT_MAX_AGE_MS || snapshot.players.isEmpty()
+                    || gameStates.containsKey(snapshot.sessionPin)) {
+                snapshotWriter.remove(snapshot.sessionPin);
+                continue;
+            }
+
+            // igrači se vraćaju odmah, da se mogu ponovo spojiti dok se kviz još učitava
+            GameState state = new GameState(snapshot.sessionPin);
+            gameStates.put(snapshot.sessionPin, state);
+            state.loop.execute(() -> handler.restorePlayers(state, snapshot));
+            handler.quizLoader.apply(snapshot.quizId)
+                    .whenComplete((quizOpt, error) -> {
+                        if (error != null)
+                            System.err.println("Error restoring room " + snapshot.sessionPin + ": " + error.getMessage());
+                        handler.restoreQuestion(state, snapshot, error == null ? quizOpt : Optional.empty());
+                    });
+            restored++;
+        }
+
+        if (restored > 0)
+            System.out.println("Restoring " + restored + " game room(s) from snapshots");
+        return restored;
+    }
+
+    private void restorePlayers(GameState state, GameSnapshot snapshot) {
+        state.currentQuestionIndex = snapshot.currentQuestionIndex;
+        state.snapshotSequence = snapshot.sequence;
+        state.hostToken = snapshot.hostToken;
+        for (GameSnapshot.Player player : snapshot.players) {
+            String participantId = player.participantId;
+            state.participants.add(participantId);
+            if (player.resumeToken != null)
+                state.resumeTokens.put(participantId, player.resumeToken);
+            if (player.score != null) {
+                state.scores.put(participantId, player.score);
+                state.leaderboard.update(participantId, player.score.getTotalScore());
+            }
+            if (snapshot.questionOpen && player.answered)
+                state.answeredParticipants.add(participantId);
+            if (!state.connections.containsKey(participantId)) {
+                state.reconnectDeadlines.put(participantId, timers.schedule(
+                        () -> state.loop.execute(() -> expireReconnect(snapshot.sessionPin, state, participantId)),
+                        RECONNECT_GRACE_MS, TimeUnit.MILLISECONDS));
+            }
+        }
+    }
+
+    private void restoreQuestion(GameState state, GameSnapshot snapshot, Optional<CompiledQuiz> quizOpt) {
+        String sessionPin = snapshot.sessionPin;
+        CompiledQuiz quiz = quizOpt.orElse(null);
+        if (quiz == null || fingerprint(quiz) != snapshot.quizFingerprint
+                || snapshot.currentQuestionIndex >= quiz.getQuestionCount()) {
+            // kviz je u međuvremenu izmijenjen ili obrisan, pa se igra ne može nastaviti
+            System.err.println("Cannot restore room " + sessionPin + ": quiz changed");
+            sendError(sessionPin, "Game could not be restored");
+            if (gameStates.remove(sessionPin, state))
+                state.loop.execute(state::cleanup);
+            return;
+        }
+
+        List<Frame> questionFrames = new ArrayList<>(quiz.getQuestionCount());
+        List<Frame> hostQuestionFrames = new ArrayList<>(quiz.getQuestionCount());
+        for (int i = 0; i < quiz.getQuestionCount(); i++) {
+            questionFrames.add(FrameEncoder.question(quiz, i, false));
+            hostQuestionFrames.add(FrameEncoder.question(quiz, i, true));
+        }
+
+        state.loop.execute(() -> {
+            int index = snapshot.currentQuestionIndex;
+            state.quiz = quiz;
+            state.quizFingerprint = snapshot.quizFingerprint;
+            state.questionFrames = questionFrames;
+            state.hostQuestionFrames = hostQuestionFrames;
+            state.dispatchedAt = new long[quiz.getQuestionCount()];
+            if (snapshot.questionOpen) {
+                state.questionResponses.put(quiz.getQuestionId(index), new HashSet<>(state.answeredParticipants));
+            }
+            startTimers(sessionPin, state);
+
+            if (snapshot.questionOpen) {
+                // vrijeme odgovora se i dalje mjeri od prvobitnog slanja pitanja
+                long limitMs = quiz.getTimeLimit(index) * 1000L;
+                long remainingMs = Math.min(snapshot.remainingMs, limitMs);
+                long now = System.nanoTime();
+                state.questionOpen = true;
+                state.questionDeadline = now + TimeUnit.MILLISECONDS.toNanos(remainingMs);
+                state.dispatchedAt[index] = now - TimeUnit.MILLISECONDS.toNanos(limitMs - remainingMs);
+                state.timer = timers.schedule(
+                        () -> state.loop.execute(() -> closeQuestion(sessionPin, state, index)),
+                        remainingMs + ANSWER_GRACE_MS, TimeUnit.MILLISECONDS);
+            } else {
+                state.timer = timers.schedule(
+                        () -> state.loop.execute(() -> advance(sessionPin, state, index)),
+                        REVEAL_MS, TimeUnit.MILLISECONDS);
+            }
+
+            // ko se spojio dok se kviz učitavao još nije dobio stanje igre
+            for (Map.Entry<String, Session> connection : state.connections.entrySet()) {
+                sendCatchUp(OutboundChannel.of(connection.getValue()), state, connection.getKey());
+            }
+            for (Session s : rooms.members(sessionPin)) {
+                if (s.isOpen() && isHost(sessionToParticipantId.get(s)))
+                    sendHostCatchUp(OutboundChannel.of(s), state);
+            }
+            System.out.println("Room restored: " + sessionPin + " at question " + (index + 1));
+        });
+    }
+
+    // pitanja, redoslijed, bodovi i vremena; isti otisak znači da se igra može nastaviti s istim kvizom
+    private static long fingerprint(CompiledQuiz quiz) {
+        long hash = quiz.getQuizId();
+        for (int i = 0; i < quiz.getQuestionCount(); i++) {
+            hash = 31 * hash + quiz.getQuestionId(i);
+            hash = 31 * hash + quiz.getPoints(i);
+            hash = 31 * hash + quiz.getTimeLimit(i);
+            for (int slot = quiz.getFirstAnswerSlot(i); slot < quiz.getAnswerSlotEnd(i); slot++) {
+                hash = 31 * hash + quiz.getAnswerId(slot);
+            }
+        }
+        return hash;
+    }
+
+    private void handleSubmitAnswer(Session session, long questionId, Long answerId, String textAnswer,
+            long receivedAt) {
+        // participantId iz putanje konekcije, ne iz poruke, da niko ne može odgovarati u tuđe ime
+        String participantId = sessionToParticipantId.get(session);
+        if (participantId == null || isHost(participantId))
             return;
 
         String sessionPin = sessionToQuizSessionId.get(session);
-        String questionId = json.get("questionId").getAsString();
-        String answerId = json.has("answerId") ? json.get("answerId").getAsString() : null;
-        String textAnswer = json.has("text") ? json.get("text").getAsString() : null;
-        boolean isCorrect = json.has("isCorrect") && json.get("isCorrect").getAsBoolean();
+        GameState state = gameStates.get(sessionPin);
+        if (state == null)
+            return;
 
+        state.loop.execute(() -> submitAnswer(session, state, sessionPin, participantId,
+                questionId, answerId, textAnswer, receivedAt));
+    }
+
+    private void submitAnswer(Session session, GameState state, String sessionPin, String participantId,
+            long questionId, Long answerId, String textAnswer, long receivedAt) {
         try {
+            CompiledQuiz quiz = state.quiz;
+            int questionIndex = quiz != null ? quiz.indexOfQuestion(questionId) : -1;
+            if (questionIndex < 0) {
+                System.err.println("Question not in game: " + questionId);
+                return;
+            }
+            if (questionIndex != state.currentQuestionIndex || !state.questionOpen)
+                return;
 
-            ParticipantAnswerService answerService = new ParticipantAnswerService();
-            boolean saved = answerService.saveParticipantAnswer(
-                    participantId,
-                    Long.parseLong(questionId),
-                    answerId != null ? Long.parseLong(answerId) : null,
-                    textAnswer);
-
-            if (saved) {
-                updateScore(sessionPin, participantId, isCorrect, questionId);
-                notifyParticipantAnswered(sessionPin, participantId, isCorrect);
-
-                GameState state = gameStates.get(sessionPin);
-                if (state != null) {
-                    state.answeredParticipants.add(participantId);
-                    checkAllAnswered(sessionPin, state);
+            int answerSlot = -1;
+            if (answerId != null) {
+                answerSlot = quiz.indexOfAnswer(questionIndex, answerId);
+                if (answerSlot < 0) {
+                    System.err.println("Answer not in question: " + answerId);
+                    return;
                 }
             }
+
+            Set<String> responses = state.questionResponses.computeIfAbsent(quiz.getQuestionId(questionIndex),
+                    k -> new HashSet<>());
+            if (!responses.add(participantId))
+                return;
+
+            String text = textAnswer != null && !textAnswer.trim().isEmpty() ? textAnswer.trim() : null;
+            boolean isCorrect = quiz.grade(questionIndex, answerSlot, text);
+            long dispatched = state.dispatchedAt[questionIndex];
+            long responseMillis = dispatched != 0 ? Math.max(0, (receivedAt - dispatched) / 1_000_000) : 0;
+            int pointsEarned = isCorrect
+                    ? scoringMode.award(quiz.getPoints(questionIndex), responseMillis,
+                            quiz.getTimeLimit(questionIndex), minSharePercent)
+                    : 0;
+
+            SubmittedAnswer submitted = new SubmittedAnswer(sessionPin, participantId, quiz.getQuestionId(questionIndex),
+                    answerSlot >= 0 ? quiz.getAnswerId(answerSlot) : null,
+                    answerSlot >= 0 ? null : text, pointsEarned);
+
+            // tačan odgovor se ne otkriva dok drugi još mogu odgovarati
+            OutboundChannel.of(session).send(FrameEncoder.answerReceived(quiz, questionIndex));
+            state.pendingResults.put(participantId, new PendingResult(
+                    FrameEncoder.answerResult(quiz, questionIndex, isCorrect, pointsEarned), isCorrect, pointsEarned));
+            updateScore(state, participantId, isCorrect, pointsEarned, responseMillis, submitted);
+            state.tickBatch.answered(participantId);
+
+            state.answeredParticipants.add(participantId);
+            checkAllAnswered(sessionPin, state);
         } catch (Exception e) {
             System.err.println("Error handling answer: " + e.getMessage());
         }
@@ -183,36 +687,34 @@ public class PlayingSocket {
         String participantId = json.get("participantId").getAsString();
         String sessionPin = sessionToQuizSessionId.get(session);
 
-        try {
-            new QuizParticipantService().updateParticipantStatus(participantId, ParticipantStatus.DISCONNECTED);
+        // poruka stiže i pri osvježavanju stranice; dok igra traje odlazak se potvrđuje tek istekom roka za povratak
+        if (gameStates.containsKey(sessionPin))
+            return;
 
-            JsonObject message = new JsonObject();
-            message.addProperty("type", "PARTICIPANT_LEFT");
-            message.addProperty("participantId", participantId);
+        DbExecutor.run(() -> {
+            new QuizParticipantService().updateParticipantStatus(participantId, ParticipantStatus.DISCONNECTED);
 
-            broadcastToSession(gson.toJson(message), sessionPin);
-        } catch (Exception e) {
+            broadcastToSession(FrameEncoder.participantLeft(participantId), sessionPin);
+        }).exceptionally(e -> {
             System.err.println("Error handling participant left: " + e.getMessage());
-        }
+            return null;
+        });
     }
 
     private void handleHostLeft(JsonObject json, Session session) {
         String sessionPin = sessionToQuizSessionId.get(session);
-        if (sessionPin == null)
+        if (sessionPin == null || !isHost(sessionToParticipantId.get(session)))
             return;
 
         try {
 
-            JsonObject message = new JsonObject();
-            message.addProperty("type", "HOST_LEFT");
-            message.addProperty("message", "Host left. Session terminated.");
-            broadcastToSession(gson.toJson(message), sessionPin);
+            broadcastToSession(FrameEncoder.message("HOST_LEFT", "Host left. Session terminated."), sessionPin);
 
-            cleanupSession(sessionPin);
+            DbExecutor.run(() -> cleanupSession(sessionPin));
 
             GameState state = gameStates.remove(sessionPin);
             if (state != null)
-                state.cleanup();
+                state.loop.execute(state::cleanup);
 
         } catch (Exception e) {
             System.err.println("Error handling host left: " + e.getMessage());
@@ -221,150 +723,176 @@ public class PlayingSocket {
 
     private void handleHostNextQuestion(JsonObject json, Session session) {
         String sessionPin = sessionToQuizSessionId.get(session);
-        if (sessionPin == null)
+        if (sessionPin == null || !isHost(sessionToParticipantId.get(session)))
             return;
 
-        GameState state = gameStates.get(sessionPin);
-        if (state != null) {
-
-            if (state.timer != null) {
-                state.timer.cancel(false);
-                state.timer = null;
-            }
-
-            state.currentQuestionIndex++;
-            scheduler.schedule(() -> sendQuestion(sessionPin, state.currentQuestionIndex), 1, TimeUnit.SECONDS);
-        }
-    }
-
-    private void updateScore(String sessionPin, String participantId, boolean isCorrect, String questionId) {
         GameState state = gameStates.get(sessionPin);
         if (state == null)
             return;
 
-        List<String> responses = state.questionResponses.computeIfAbsent(questionId, k -> new ArrayList<>());
-        if (responses.contains(participantId))
-            return;
-
-        responses.add(participantId);
-
-        try {
-            QuizParticipantService participantService = new QuizParticipantService();
-
-            Optional<QuizParticipant> participantOpt = participantService.findByParticipantId(participantId);
-            if (!participantOpt.isPresent()) {
-                System.err.println("Participant not found: " + participantId);
+        Long questionId = json.has("questionId") && !json.get("questionId").isJsonNull()
+                ? Long.parseLong(json.get("questionId").getAsString())
+                : null;
+        state.loop.execute(() -> {
+            if (state.quiz == null)
                 return;
-            }
 
-            QuizParticipant participant = participantOpt.get();
-
-            int newTotalAnswers = participant.getTotalAnswers() + 1;
-            int newCorrectAnswers = participant.getCorrectAnswers() + (isCorrect ? 1 : 0);
-            int newTotalScore = participant.getTotalScore();
-
-            if (isCorrect && state.currentQuestionIndex < state.questions.size()) {
-                Question question = state.questions.get(state.currentQuestionIndex);
-                newTotalScore += question.getPoints();
-
-                state.scores.merge(participantId, question.getPoints(), Integer::sum);
-            }
+            // klik koji je stigao nakon što je server već sam prešao na sljedeće pitanje se ignoriše
+            int index = state.currentQuestionIndex;
+            if (questionId != null && questionId != state.quiz.getQuestionId(index))
+                return;
 
-            participantService.updateParticipantScore(participantId, newTotalScore, newCorrectAnswers, newTotalAnswers);
+            advance(sessionPin, state, index);
+        });
+    }
 
-            System.out.println("Updated participant " + participantId + ": " +
-                    newCorrectAnswers + "/" + newTotalAnswers + " correct, " +
-                    newTotalScore + " points");
+    // bodovi odmah idu u bazu; tabela se pomjera tek u revealResults
+    private void updateScore(GameState state, String participantId, boolean isCorrect,
+            int pointsEarned, long responseMillis, SubmittedAnswer submitted) {
+        ParticipantScore score = state.scores.computeIfAbsent(participantId, ParticipantScore::new);
+        score.recordAnswer(isCorrect, pointsEarned, responseMillis);
+        scoreWriter.record(submitted, score);
+    }
 
-            sendScoreUpdate(sessionPin, state);
+    // rezultat kakav su igrači vidjeli: bez bodova za pitanje koje je još otvoreno
+    private static int revealedScore(GameState state, String participantId) {
+        ParticipantScore score = state.scores.get(participantId);
+        if (score == null)
+            return 0;
+        PendingResult pending = state.pendingResults.get(participantId);
+        return score.getTotalScore() - (pending != null ? pending.pointsEarned : 0);
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error updating participant score: " + e.getMessage());
-            e.printStackTrace();
+    private static Frame scoreUpdate(GameState state) {
+        Map<String, Integer> totals = new LinkedHashMap<>();
+        for (String participantId : state.scores.keySet()) {
+            totals.put(participantId, revealedScore(state, participantId));
         }
+        return FrameEncoder.scoreUpdate(totals, state.leaderboard.top(LEADERBOARD_TOP));
     }
 
     private void sendScoreUpdate(String sessionPin, GameState state) {
-        JsonObject message = new JsonObject();
-        message.addProperty("type", "SCORE_UPDATE");
-
-        JsonObject scores = new JsonObject();
-        state.scores.forEach(scores::addProperty);
-        message.add("scores", scores);
+        if (state.leaderboard.size() == 0)
+            return;
 
-        broadcastToSession(gson.toJson(message), sessionPin);
+        broadcastToSession(scoreUpdate(state), sessionPin);
     }
 
-    private void notifyParticipantAnswered(String sessionPin, String participantId, boolean isCorrect) {
-        JsonObject message = new JsonObject();
-        message.addProperty("type", "PARTICIPANT_ANSWERED");
-        message.addProperty("participantId", participantId);
-        message.addProperty("isCorrect", isCorrect);
-        message.addProperty("sessionPin", sessionPin);
-
-        broadcastToSession(gson.toJson(message), sessionPin);
+    private void flushTick(String sessionPin, GameState state) {
+        try {
+            Frame frame = state.tickBatch.drain(sessionPin, state.leaderboard);
+            if (frame != null)
+                broadcastToSession(frame, sessionPin);
+        } catch (Exception e) {
+            System.err.println("Error flushing tick: " + e.getMessage());
+        }
     }
 
-    private void sendQuestion(String sessionPin, int questionIndex) {
-        GameState state = gameStates.get(sessionPin);
-        if (state == null || questionIndex >= state.questions.size()) {
-            sendQuizCompleted(sessionPin);
+    private void openQuestion(String sessionPin, GameState state, int questionIndex) {
+        if (questionIndex >= state.questionFrames.size()) {
+            state.cancelTimer();
+            state.cancelTick();
+            state.cancelSnapshots();
+            state.questionOpen = false;
+            flushTick(sessionPin, state);
+            // završetak piše u bazu, što ne smije blokirati petlju sobe
+            DbExecutor.run(() -> sendQuizCompleted(sessionPin, state));
             return;
         }
 
-        Question question = state.questions.get(questionIndex);
+        state.cancelTimer();
+        // zaostali odgovori prethodnog pitanja moraju stići prije novog pitanja
+        flushTick(sessionPin, state);
         state.reset();
+        state.currentQuestionIndex = questionIndex;
+        state.questionOpen = true;
+
+        sendScoreUpdate(sessionPin, state);
+        state.dispatchedAt[questionIndex] = System.nanoTime();
+        state.questionDeadline = state.dispatchedAt[questionIndex]
+                + TimeUnit.SECONDS.toNanos(state.quiz.getTimeLimit(questionIndex));
+        Frame playerFrame = state.questionFrames.get(questionIndex);
+        Frame hostFrame = state.hostQuestionFrames.get(questionIndex);
+        for (Session s : rooms.members(sessionPin)) {
+            if (s.isOpen()) {
+                OutboundChannel.of(s).send(isHost(sessionToParticipantId.get(s)) ? hostFrame : playerFrame);
+            }
+        }
 
-        JsonObject message = createQuestionMessage(question, questionIndex, state.questions.size());
-        broadcastToSession(gson.toJson(message), sessionPin);
+        // klijent sam šalje odgovor kad mu istekne vrijeme, pa rok ima malu rezervu za put do servera
+        long deadlineMs = state.quiz.getTimeLimit(questionIndex) * 1000L + ANSWER_GRACE_MS;
+        state.timer = timers.schedule(
+                () -> state.loop.execute(() -> closeQuestion(sessionPin, state, questionIndex)),
+                deadlineMs, TimeUnit.MILLISECONDS);
 
         System.out.println("Question " + (questionIndex + 1) + " sent to session: " + sessionPin);
     }
 
-    private JsonObject createQuestionMessage(Question question, int index, int total) {
-        JsonObject message = new JsonObject();
-        message.addProperty("type", index == 0 ? "FIRST_QUESTION" : "NEXT_QUESTION");
-        message.addProperty("questionId", question.getId().toString());
-        message.addProperty("questionText", question.getQuestionText());
-        message.addProperty("questionImage", question.getQuestionImage());
-        message.addProperty("questionOrder", question.getQuestionOrder());
-        message.addProperty("timeLimit", question.getTimeLimit());
-        message.addProperty("points", question.getPoints());
-        message.addProperty("questionType", question.getQuestionType().toString());
-        message.addProperty("totalQuestions", total);
-        message.addProperty("currentQuestionNumber", index + 1);
-
-        JsonArray answers = new JsonArray();
-        question.getAnswers().forEach(answer -> {
-            JsonObject answerObj = new JsonObject();
-            answerObj.addProperty("id", answer.getId().toString());
-            answerObj.addProperty("answerText", answer.getAnswerText());
-            answerObj.addProperty("answerOrder", answer.getAnswerOrder());
-            answerObj.addProperty("isCorrect", answer.getIsCorrect());
-            answers.add(answerObj);
-        });
-        message.add("answers", answers);
+    private void closeQuestion(String sessionPin, GameState state, int questionIndex) {
+        if (state.currentQuestionIndex != questionIndex || !state.questionOpen)
+            return;
 
-        return message;
+        state.questionOpen = false;
+        state.cancelTimer();
+        flushTick(sessionPin, state);
+        broadcastToSession(FrameEncoder.questionClosed(state.quiz, questionIndex, REVEAL_MS), sessionPin);
+        revealResults(sessionPin, state);
+        state.timer = timers.schedule(
+                () -> state.loop.execute(() -> advance(sessionPin, state, questionIndex)),
+                REVEAL_MS, TimeUnit.MILLISECONDS);
     }
 
-    private void checkAllAnswered(String sessionPin, GameState state) {
-        int totalParticipants = state.participants.size();
-        int answeredCount = state.answeredParticipants.size();
+    private void advance(String sessionPin, GameState state, int questionIndex) {
+        // i rok, i pauza, i host mogu pokušati prijeći dalje; samo prvi za ovo pitanje uspijeva
+        if (state.currentQuestionIndex != questionIndex || gameStates.get(sessionPin) != state)
+            return;
 
-        System.out.println("Session " + sessionPin + ": " + answeredCount + "/" + totalParticipants + " answered");
+        state.cancelTimer();
+        // host je preskočio ostatak vremena, pa rezultati idu prije sljedećeg pitanja
+        if (state.questionOpen)
+            revealResults(sessionPin, state);
+        state.questionOpen = false;
+        state.currentQuestionIndex = questionIndex + 1;
+        openQuestion(sessionPin, state, questionIndex + 1);
+    }
 
-        if (answeredCount >= totalParticipants) {
-            System.out.println("All participants answered for session: " + sessionPin);
+    // tačnost i bodovi se otkrivaju tek kad niko više ne može odgovoriti na pitanje
+    private void revealResults(String sessionPin, GameState state) {
+        for (Map.Entry<String, PendingResult> entry : state.pendingResults.entrySet()) {
+            String participantId = entry.getKey();
+            PendingResult result = entry.getValue();
+            ParticipantScore score = state.scores.get(participantId);
+            if (score != null)
+                state.leaderboard.update(participantId, score.getTotalScore());
+            state.tickBatch.revealed(participantId, result.isCorrect);
+
+            Session s = state.connections.get(participantId);
+            if (s != null && s.isOpen())
+                OutboundChannel.of(s).send(result.frame);
         }
+        state.pendingResults.clear();
+        flushTick(sessionPin, state);
     }
 
-    private void sendQuizCompleted(String sessionPin) {
-        JsonObject message = new JsonObject();
-        message.addProperty("type", "QUIZ_COMPLETED");
-        message.addProperty("message", "Quiz completed!");
+    private void checkAllAnswered(String sessionPin, GameState state) {
+        // igrač koji čeka povratak ne zadržava pitanje; za njega vrijedi rok
+        if (!state.questionOpen || state.connections.isEmpty())
+            return;
 
-        broadcastToSession(gson.toJson(message), sessionPin);
+        if (state.answeredParticipants.containsAll(state.connections.keySet())) {
+            closeQuestion(sessionPin, state, state.currentQuestionIndex);
+        }
+    }
+
+    private void sendQuizCompleted(String sessionPin, GameState state) {
+        // rezultati moraju biti u bazi prije nego klijenti odu na stranicu s rezultatima
+        try {
+            scoreWriter.flush();
+        } catch (Exception e) {
+            System.err.println("Error flushing scores: " + e.getMessage());
+        }
+
+        broadcastToSession(FrameEncoder.message("QUIZ_COMPLETED", "Quiz completed!"), sessionPin);
 
         try {
             QuizSessionService sessionService = new QuizSessionService();
@@ -379,13 +907,15 @@ public class PlayingSocket {
             System.err.println("Error completing quiz: " + e.getMessage());
         }
 
-        GameState state = gameStates.remove(sessionPin);
-        if (state != null)
-            state.cleanup();
+        gameStates.remove(sessionPin, state);
+        state.loop.execute(state::cleanup);
     }
 
     private void cleanupSession(String sessionPin) {
         try {
+            // odgovori sesije koja se briše se ne upisuju, njihovi učesnici nestaju zajedno sa sesijom
+            scoreWriter.discardSession(sessionPin);
+
             QuizSessionService sessionService = new QuizSessionService();
             Optional<QuizSession> sessionOpt = sessionService.findBySessionPin(sessionPin);
 
@@ -401,26 +931,25 @@ public class PlayingSocket {
         }
     }
 
+    private static ScoringMode scoringMode() {
+        String mode = AppConfig.getString("trivia.scoring.mode", ScoringMode.FLAT.name());
+        try {
+            return ScoringMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown scoring mode: " + mode + ", using FLAT");
+            return ScoringMode.FLAT;
+        }
+    }
+
     private void sendError(String sessionPin, String errorMessage) {
-        JsonObject error = new JsonObject();
-        error.addProperty("type", "ERROR");
-        error.addProperty("message", errorMessage);
-
-        broadcastToSession(gson.toJson(error), sessionPin);
-    }
-
-    private void broadcastToSession(String message, String sessionPin) {
-        synchronized (sessions) {
-            sessions.stream()
-                    .filter(Session::isOpen)
-                    .filter(s -> sessionPin.equals(sessionToQuizSessionId.get(s)))
-                    .forEach(s -> {
-                        try {
-                            s.getBasicRemote().sendText(message);
-                        } catch (IOException e) {
-                            System.err.println("Error sending message: " + e.getMessage());
-                        }
-                    });
+        broadcastToSession(FrameEncoder.message("ERROR", errorMessage), sessionPin);
+    }
+
+    private void broadcastToSession(Frame frame, String sessionPin) {
+        for (Session s : rooms.members(sessionPin)) {
+            if (s.isOpen()) {
+                OutboundChannel.of(s).send(frame);
+            }
         }
     }
 }
\ No newline at end of file
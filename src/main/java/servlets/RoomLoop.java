@@ -0,0 +1,68 @@
+package servlets;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sanduče jedne sobe: komande s konekcija i tajmera se izvršavaju jedna po jedna, redom kojim su stigle,
+// na pool-u zajedničkom za sve sobe, pa stanje sobe ne treba zaključavanje. Komanda ne smije blokirati:
+// čekanje na bazu ide na drugu nit, a rezultat se vraća sobi kao nova komanda
+final class RoomLoop {
+
+    // koliko komandi soba izvrši prije nego prepusti nit drugim sobama
+    private static final int BATCH = 64;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService workers = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), r -> {
+                Thread thread = new Thread(r, "room-loop-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean closed;
+
+    // komande poslane nakon close() se odbacuju
+    void execute(Runnable command) {
+        if (closed)
+            return;
+        mailbox.add(command);
+        schedule();
+    }
+
+    // već primljene komande se i dalje izvršavaju
+    void close() {
+        closed = true;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true))
+            workers.execute(this::drain);
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < BATCH; i++) {
+                Runnable command = mailbox.poll();
+                if (command == null)
+                    break;
+                try {
+                    command.run();
+                } catch (Exception e) {
+                    System.err.println("Room command failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            // i nakon Error-a iz komande soba mora ostati živa; inače bi scheduled ostao true zauvijek.
+            // Komanda dodana između zadnjeg poll-a i ovog reseta bi inače ostala čekati
+            scheduled.set(false);
+            if (!mailbox.isEmpty())
+                schedule();
+        }
+    }
+}
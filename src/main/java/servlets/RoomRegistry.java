@@ -0,0 +1,39 @@
+package servlets;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+class RoomRegistry<T> {
+
+    private final Map<String, Set<T>> rooms = new ConcurrentHashMap<>();
+
+    void join(String sessionPin, T member) {
+        rooms.compute(sessionPin, (pin, members) -> {
+            Set<T> room = members != null ? members : ConcurrentHashMap.newKeySet();
+            room.add(member);
+            return room;
+        });
+    }
+
+    void leave(String sessionPin, T member) {
+        if (sessionPin == null)
+            return;
+
+        // computeIfPresent atomski uklanja sobu kad iz nje izađe zadnji član
+        rooms.computeIfPresent(sessionPin, (pin, members) -> {
+            members.remove(member);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    Set<T> members(String sessionPin) {
+        Set<T> members = sessionPin != null ? rooms.get(sessionPin) : null;
+        return members != null ? members : Collections.emptySet();
+    }
+
+    int roomCount() {
+        return rooms.size();
+    }
+}
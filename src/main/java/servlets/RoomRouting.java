@@ -0,0 +1,36 @@
+package servlets;
+
+import cluster.Cluster;
+import com.google.gson.JsonObject;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Session;
+
+import java.io.IOException;
+
+// Šalje konekciju čvoru koji drži PIN: klijent dobija REDIRECT s adresom, a konekcija se zatvara
+// prije nego što se dira stanje sobe
+final class RoomRouting {
+
+    private RoomRouting() {
+    }
+
+    // true ako konekcija pripada drugom čvoru i preusmjerena je tamo
+    static boolean redirect(Session session, String sessionPin) {
+        String url = Cluster.redirectUrl(sessionPin, session.getRequestURI());
+        if (url == null)
+            return false;
+
+        JsonObject redirect = new JsonObject();
+        redirect.addProperty("type", "REDIRECT");
+        redirect.addProperty("node", Cluster.ownership().ownerOf(sessionPin).getId());
+        redirect.addProperty("url", url);
+        try {
+            // jedina poruka na ovoj vezi, pa se šalje sinhrono da stigne prije zatvaranja
+            session.getBasicRemote().sendText(redirect.toString());
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "redirect"));
+        } catch (IOException e) {
+            System.err.println("Redirect failed for session " + sessionPin + ": " + e.getMessage());
+        }
+        return true;
+    }
+}
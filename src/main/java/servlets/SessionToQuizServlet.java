@@ -65,8 +65,11 @@ public class SessionToQuizServlet extends HttpServlet {
 
             QuizWithQuestionsResponse quizResponse = new QuizWithQuestionsResponse(quiz, questionResponses);
 
-            List<QuizParticipant> participantsList = quizParticipantService.getParticipantsBySession(session);
-            System.out.println(participantsList);
+            // dok čekaonica postoji, novi učesnici su samo u memoriji
+            Lobby lobby = JoinSocket.findLobby(sessionPin);
+            List<QuizParticipant> participantsList = lobby != null && lobby.isLoaded()
+                    ? lobby.participants()
+                    : quizParticipantService.getParticipantsBySession(session);
             List<ParticipantResponse> participantResponses = participantsList.stream()
                     .map(ParticipantResponse::new)
                     .collect(Collectors.toList());
@@ -0,0 +1,57 @@
+package servlets;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Događaji sobe skupljeni između dva tick-a; svaki tick ih šalje u jednom TICK okviru.
+// Pripada petlji sobe, pa nije thread-safe.
+// changes nosi samo igrače kojima se promijenio rezultat; ostali sami presortiraju tabelu,
+// a puni SCORE_UPDATE na početku pitanja ispravlja eventualna odstupanja
+class TickBatch {
+
+    static final class Answered {
+        final String participantId;
+        // null dok je pitanje otvoreno: tada se zna samo da je igrač odgovorio
+        final Boolean isCorrect;
+
+        Answered(String participantId, Boolean isCorrect) {
+            this.participantId = participantId;
+            this.isCorrect = isCorrect;
+        }
+    }
+
+    private List<Answered> answered = new ArrayList<>();
+    private Set<String> changedScores = new LinkedHashSet<>();
+
+    void answered(String participantId) {
+        answered.add(new Answered(participantId, null));
+    }
+
+    // tačnost i novi rezultat se otkrivaju tek kad se pitanje zatvori
+    void revealed(String participantId, boolean isCorrect) {
+        answered.add(new Answered(participantId, isCorrect));
+        changedScores.add(participantId);
+    }
+
+    // vraća null ako se od prošlog tick-a ništa nije desilo
+    Frame drain(String sessionPin, Leaderboard leaderboard) {
+        if (answered.isEmpty() && changedScores.isEmpty())
+            return null;
+
+        List<Answered> drainedAnswers = answered;
+        Set<String> drainedScores = changedScores;
+        answered = new ArrayList<>();
+        changedScores = new LinkedHashSet<>();
+
+        // plasman se čita tek sada, pa klijent dobija rang važeći u trenutku tick-a
+        List<Leaderboard.Standing> changes = new ArrayList<>(drainedScores.size());
+        for (String participantId : drainedScores) {
+            Leaderboard.Standing standing = leaderboard.standing(participantId);
+            if (standing != null)
+                changes.add(standing);
+        }
+        return FrameEncoder.tick(sessionPin, drainedAnswers, changes);
+    }
+}
@@ -0,0 +1,136 @@
+package util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Rad s bazom van WebSocket niti i petlji soba, na ograničenom pool-u: s bazom istovremeno radi najviše onoliko
+// poslova koliko pool ima konekcija, pa spora baza pravi red ovdje umjesto da zaustavi poruke.
+// Na JDK 21+ svaki posao dobija virtuelnu nit (metrika virtualThreads). Rezultat se vraća vlasniku stanja
+public final class DbExecutor {
+
+    // posao bez rezultata; smije baciti izuzetak kao i servisi koje zove
+    public interface Work {
+        void run() throws Exception;
+    }
+
+    private static final int CONCURRENCY = Math.max(1, AppConfig.getInt("trivia.db.executor.concurrency",
+            AppConfig.getInt("trivia.db.pool.maxSize", 20)));
+    private static final int QUEUE_CAPACITY = Math.max(1, AppConfig.getInt("trivia.db.executor.queueCapacity", 10000));
+
+    private static final Semaphore permits = new Semaphore(CONCURRENCY);
+    private static final AtomicInteger queued = new AtomicInteger();
+    private static final LongAdder completed = new LongAdder();
+    private static final LongAdder failed = new LongAdder();
+    private static final LongAdder rejected = new LongAdder();
+    private static final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private static final boolean virtual;
+    private static final ExecutorService executor;
+
+    static {
+        ExecutorService virtualExecutor = virtualThreadExecutor();
+        virtual = virtualExecutor != null;
+        executor = virtual ? virtualExecutor : boundedPool();
+    }
+
+    private DbExecutor() {
+    }
+
+    public static <T> CompletableFuture<T> supply(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long submittedAt = System.nanoTime();
+        if (queued.incrementAndGet() > QUEUE_CAPACITY) {
+            queued.decrementAndGet();
+            rejected.increment();
+            result.completeExceptionally(new RejectedExecutionException("Database work queue is full"));
+            return result;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    queued.decrementAndGet();
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                    return;
+                }
+                queued.decrementAndGet();
+                maxWaitNanos.accumulateAndGet(System.nanoTime() - submittedAt, Math::max);
+                try {
+                    result.complete(task.call());
+                    completed.increment();
+                } catch (Throwable t) {
+                    failed.increment();
+                    result.completeExceptionally(t);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.increment();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    public static CompletableFuture<Void> run(Work task) {
+        return supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static void shutdown() {
+        executor.shutdown();
+    }
+
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("virtualThreads", virtual);
+        metrics.put("concurrency", CONCURRENCY);
+        metrics.put("running", CONCURRENCY - permits.availablePermits());
+        metrics.put("queued", queued.get());
+        metrics.put("completed", completed.sum());
+        metrics.put("failed", failed.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("maxQueueWaitMillis", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        return metrics;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor postoji tek od Jave 21, pa se traži refleksijom;
+    // na JDK 17 uvijek vraća null
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService boundedPool() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // red je ograničen brojačem queued, pa ovaj red nikad ne odbija
+        return new ThreadPoolExecutor(CONCURRENCY, CONCURRENCY, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY + CONCURRENCY), r -> {
+                    Thread thread = new Thread(r, "db-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
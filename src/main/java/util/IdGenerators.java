@@ -0,0 +1,42 @@
+package util;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+
+// Drži id_generators ispred redova upisanih dok su tabele koristile AUTO_INCREMENT;
+// poziva se jednom nakon pokretanja JPA, prije prvog upisa
+public final class IdGenerators {
+
+    private static final int ALLOCATION_SIZE = 50;
+    private static final List<String> TABLES = List.of(
+            "participant_answers", "quiz_participants", "questions", "answers");
+
+    private IdGenerators() {
+    }
+
+    public static void seed() {
+        EntityManager em = JPAUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            for (String table : TABLES) {
+                Number maxId = (Number) em.createNativeQuery(
+                        "SELECT COALESCE(MAX(id), 0) FROM " + table).getSingleResult();
+                // pooled optimizer dijeli (next_val - allocationSize, next_val], pa ostajemo cijeli blok iznad
+                long nextVal = maxId.longValue() + ALLOCATION_SIZE + 1;
+                em.createNativeQuery(
+                        "INSERT INTO id_generators (entity, next_val) VALUES (:entity, :nextVal) " +
+                        "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, :nextVal)")
+                        .setParameter("entity", table)
+                        .setParameter("nextVal", nextVal)
+                        .executeUpdate();
+            }
+            em.getTransaction().commit();
+        } catch (Exception e) {
+            em.getTransaction().rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+}
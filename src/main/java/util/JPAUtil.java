@@ -1,18 +1,36 @@
 package util;
 
+import cluster.Cluster;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
+import model.Answer;
+import model.Question;
+import model.Quiz;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class JPAUtil {
     private static EntityManagerFactory emf;
+    private static final AtomicLong quizContentVersion = new AtomicLong();
+    // izmjena kviza na jednom čvoru prazni keševe i na ostalima; poruka je id čvora koji je kviz izmijenio
+    private static final String QUIZ_CONTENT_CHANNEL = "quiz.content";
     
     static {
         try {
-            emf = Persistence.createEntityManagerFactory("myPU");
+            emf = Persistence.createEntityManagerFactory("myPU", overrides());
         } catch (Exception e) {
             throw new ExceptionInInitializerError(e);
         }
+        Cluster.bus().subscribe(QUIZ_CONTENT_CHANNEL, nodeId -> {
+            if (!nodeId.equals(localNodeId()))
+                evictLocalQuizContent();
+        });
     }
     
     public static EntityManager getEntityManager() {
@@ -24,4 +42,71 @@ public class JPAUtil {
             emf.close();
         }
     }
+    
+    // Kvizovi se mijenjaju rijetko, pa nakon svake izmjene praznimo cijele regije
+    // umjesto da pratimo koje su kolekcije pitanja/odgovora zastarjele.
+    // Sabirnica ne garantuje isporuku: čvor koji propusti poruku vidi stari sadržaj najduže do isteka keša
+    // (ttl u ehcache.xml, trivia.quiz.compiledMaxAgeMs za kompajlirane kvizove)
+    public static void evictQuizContent() {
+        evictLocalQuizContent();
+        Cluster.bus().publish(QUIZ_CONTENT_CHANNEL, localNodeId());
+    }
+    
+    private static void evictLocalQuizContent() {
+        quizContentVersion.incrementAndGet();
+        Cache cache = emf.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Quiz.class);
+        cache.evictEntityData(Question.class);
+        cache.evictEntityData(Answer.class);
+        cache.evictCollectionData(Quiz.class.getName() + ".questions");
+        cache.evictCollectionData(Question.class.getName() + ".answers");
+    }
+    
+    // Raste sa svakom izmjenom kviza; keševi izvedeni iz sadržaja kviza po njoj prepoznaju zastarjele unose
+    public static long getQuizContentVersion() {
+        return quizContentVersion.get();
+    }
+    
+    private static String localNodeId() {
+        return Cluster.ownership().localNode().getId();
+    }
+    
+    public static Statistics getStatistics() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    private static Map<String, Object> overrides() {
+        Map<String, Object> settings = new HashMap<>();
+        
+        putIfSet(settings, "jakarta.persistence.jdbc.url", AppConfig.getString("trivia.db.url", null));
+        putIfSet(settings, "jakarta.persistence.jdbc.user", AppConfig.getString("trivia.db.user", null));
+        putIfSet(settings, "jakarta.persistence.jdbc.password", AppConfig.getString("trivia.db.password", null));
+        putIfSet(settings, "jakarta.persistence.jdbc.driver", AppConfig.getString("trivia.db.driver", null));
+        putIfSet(settings, "hibernate.dialect", AppConfig.getString("trivia.db.dialect", null));
+        putIfSet(settings, "hibernate.show_sql", AppConfig.getString("trivia.db.showSql", null));
+        
+        settings.put("hibernate.connection.provider_class", "org.hibernate.hikaricp.internal.HikariCPConnectionProvider");
+        settings.put("hibernate.hikari.poolName", "trivia-pool");
+        settings.put("hibernate.hikari.maximumPoolSize", String.valueOf(AppConfig.getInt("trivia.db.pool.maxSize", 20)));
+        settings.put("hibernate.hikari.minimumIdle", String.valueOf(AppConfig.getInt("trivia.db.pool.minIdle", 5)));
+        settings.put("hibernate.hikari.connectionTimeout", String.valueOf(AppConfig.getLong("trivia.db.pool.connectionTimeoutMs", 5000)));
+        settings.put("hibernate.hikari.idleTimeout", String.valueOf(AppConfig.getLong("trivia.db.pool.idleTimeoutMs", 300000)));
+        settings.put("hibernate.hikari.maxLifetime", String.valueOf(AppConfig.getLong("trivia.db.pool.maxLifetimeMs", 1200000)));
+        settings.put("hibernate.hikari.leakDetectionThreshold", String.valueOf(AppConfig.getLong("trivia.db.pool.leakDetectionThresholdMs", 0)));
+        settings.put("hibernate.hikari.metricsTrackerFactory", PoolMetrics.class.getName());
+        
+        // MySQL Connector/J čita ove postavke iz dataSource.* svojstava
+        boolean statementCache = AppConfig.getBoolean("trivia.db.statementCache.enabled", true);
+        settings.put("hibernate.hikari.dataSource.cachePrepStmts", String.valueOf(statementCache));
+        settings.put("hibernate.hikari.dataSource.useServerPrepStmts", String.valueOf(statementCache));
+        settings.put("hibernate.hikari.dataSource.prepStmtCacheSize", String.valueOf(AppConfig.getInt("trivia.db.statementCache.size", 250)));
+        settings.put("hibernate.hikari.dataSource.prepStmtCacheSqlLimit", String.valueOf(AppConfig.getInt("trivia.db.statementCache.sqlLimit", 2048)));
+        return settings;
+    }
+    
+    private static void putIfSet(Map<String, Object> settings, String key, String value) {
+        if (value != null) {
+            settings.put(key, value);
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package util;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Metrike HikariCP pool-a; Hikari ovu klasu pravi po imenu, pa su brojači statički
+// da ih admin endpoint može čitati bez reference na pool
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private static volatile PoolStats poolStats;
+
+    private static final LongAdder acquisitions = new LongAdder();
+    private static final LongAdder acquireNanos = new LongAdder();
+    private static final AtomicLong maxAcquireNanos = new AtomicLong();
+    private static final LongAdder timeouts = new LongAdder();
+    private static final LongAdder usageMillis = new LongAdder();
+    private static final AtomicLong maxUsageMillis = new AtomicLong();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats stats) {
+        poolStats = stats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitions.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageMillis.add(elapsedBorrowedMillis);
+                maxUsageMillis.accumulateAndGet(elapsedBorrowedMillis, Math::max);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            metrics.put("activeConnections", stats.getActiveConnections());
+            metrics.put("idleConnections", stats.getIdleConnections());
+            metrics.put("totalConnections", stats.getTotalConnections());
+            metrics.put("pendingThreads", stats.getPendingThreads());
+            metrics.put("maxConnections", stats.getMaxConnections());
+            metrics.put("minConnections", stats.getMinConnections());
+        }
+
+        long count = acquisitions.sum();
+        metrics.put("acquisitions", count);
+        metrics.put("avgAcquireMicros", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(acquireNanos.sum() / count));
+        metrics.put("maxAcquireMicros", TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos.get()));
+        metrics.put("avgUsageMillis", count == 0 ? 0 : usageMillis.sum() / count);
+        metrics.put("maxUsageMillis", maxUsageMillis.get());
+        metrics.put("connectionTimeouts", timeouts.sum());
+        return metrics;
+    }
+}
@@ -0,0 +1,277 @@
+package util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Tajmer-točak zajednički za sve sobe i čekaonice; zakazivanje i otkazivanje su O(1), preciznost je jedan tick.
+// Zadaci se izvršavaju na niti točka, pa moraju biti kratki, a blokirajući posao predaju drugoj niti
+public final class WheelTimer {
+
+    public interface Timeout {
+        // true ako se zadatak još nije izvršio i sada se neće ni izvršiti
+        boolean cancel();
+    }
+
+    private static final int WAITING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private static final WheelTimer shared = new WheelTimer(
+            AppConfig.getLong("trivia.timer.tickMs", 10),
+            AppConfig.getInt("trivia.timer.wheelSize", 512));
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> cancelled = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean running = true;
+    private long tick;
+
+    private final AtomicInteger pendingTimers = new AtomicInteger();
+    private final LongAdder expiredTimers = new LongAdder();
+    private final LongAdder cancelledTimers = new LongAdder();
+    private final LongAdder failedTasks = new LongAdder();
+    private volatile long lastTickLagMicros;
+    private final AtomicLong maxTickLagMicros = new AtomicLong();
+
+    private WheelTimer(long tickMs, int wheelSize) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMs));
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startTime = System.nanoTime();
+
+        worker = new Thread(this::run, "wheel-timer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public static WheelTimer shared() {
+        return shared;
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long deadline = System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay));
+        Entry entry = new Entry(task, deadline);
+        pendingTimers.incrementAndGet();
+        pending.add(entry);
+        return entry;
+    }
+
+    // svako izvršavanje se računa od prethodnog roka, a ne od kraja zadatka, pa se period ne pomjera
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        Periodic periodic = new Periodic(task, unit.toNanos(period));
+        periodic.next(System.nanoTime() - startTime + unit.toNanos(initialDelay));
+        return periodic;
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pendingTimers", pendingTimers.get());
+        metrics.put("expiredTimers", expiredTimers.sum());
+        metrics.put("cancelledTimers", cancelledTimers.sum());
+        metrics.put("failedTasks", failedTasks.sum());
+        metrics.put("tickMillis", TimeUnit.NANOSECONDS.toMillis(tickNanos));
+        metrics.put("lastTickLagMicros", lastTickLagMicros);
+        metrics.put("maxTickLagMicros", maxTickLagMicros.get());
+        return metrics;
+    }
+
+    private void run() {
+        while (running) {
+            long tickDeadline = (tick + 1) * tickNanos;
+            long sleepNanos = tickDeadline - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running)
+                        return;
+                }
+                continue;
+            }
+
+            long lagMicros = TimeUnit.NANOSECONDS.toMicros(-sleepNanos);
+            lastTickLagMicros = lagMicros;
+            maxTickLagMicros.accumulateAndGet(lagMicros, Math::max);
+
+            unlinkCancelled();
+            transferPending();
+            wheel[(int) (tick & mask)].expire(tickDeadline);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        // ograničeno po tick-u, da nagli priliv ne zaustavi okretanje točka
+        for (int i = 0; i < 100_000; i++) {
+            Entry entry = pending.poll();
+            if (entry == null)
+                return;
+            if (entry.state.get() == CANCELLED)
+                continue;
+
+            long ticks = Math.max(entry.deadline / tickNanos, tick);
+            entry.remainingRounds = (ticks - tick) / wheel.length;
+            wheel[(int) (ticks & mask)].add(entry);
+        }
+    }
+
+    private void unlinkCancelled() {
+        Entry entry;
+        while ((entry = cancelled.poll()) != null) {
+            if (entry.bucket != null)
+                entry.bucket.remove(entry);
+        }
+    }
+
+    private void runTask(Entry entry) {
+        try {
+            entry.task.run();
+        } catch (Throwable t) {
+            failedTasks.increment();
+            System.err.println("Timer task failed: " + t.getMessage());
+        }
+    }
+
+    private final class Entry implements Timeout {
+        final Runnable task;
+        final long deadline;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        long remainingRounds;
+        Bucket bucket;
+        Entry prev;
+        Entry next;
+
+        Entry(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED))
+                return false;
+            pendingTimers.decrementAndGet();
+            cancelledTimers.increment();
+            cancelled.add(this);
+            return true;
+        }
+    }
+
+    private final class Periodic implements Timeout, Runnable {
+        final Runnable task;
+        final long periodNanos;
+        volatile boolean cancelled;
+        volatile Entry current;
+
+        Periodic(Runnable task, long periodNanos) {
+            this.task = task;
+            this.periodNanos = Math.max(tickNanos, periodNanos);
+        }
+
+        void next(long deadline) {
+            Entry entry = new Entry(this, deadline);
+            current = entry;
+            pendingTimers.incrementAndGet();
+            pending.add(entry);
+            if (cancelled)
+                entry.cancel();
+        }
+
+        @Override
+        public void run() {
+            if (cancelled)
+                return;
+            long deadline = current.deadline;
+            try {
+                task.run();
+            } finally {
+                if (!cancelled)
+                    next(deadline + periodNanos);
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            if (cancelled)
+                return false;
+            cancelled = true;
+            Entry entry = current;
+            if (entry != null)
+                entry.cancel();
+            return true;
+        }
+    }
+
+    // dvostruko povezana lista, pa se otkazani unos uklanja u O(1); dira je samo nit točka
+    private final class Bucket {
+        Entry head;
+        Entry tail;
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            if (head == null) {
+                head = tail = entry;
+            } else {
+                tail.next = entry;
+                entry.prev = tail;
+                tail = entry;
+            }
+        }
+
+        void remove(Entry entry) {
+            if (entry.bucket != this)
+                return;
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            } else {
+                tail = entry.prev;
+            }
+            entry.prev = entry.next = null;
+            entry.bucket = null;
+        }
+
+        void expire(long tickDeadline) {
+            Entry entry = head;
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.remainingRounds <= 0 && entry.deadline <= tickDeadline) {
+                    remove(entry);
+                    if (entry.state.compareAndSet(WAITING, EXPIRED)) {
+                        pendingTimers.decrementAndGet();
+                        expiredTimers.increment();
+                        runTask(entry);
+                    }
+                } else if (entry.state.get() == CANCELLED) {
+                    remove(entry);
+                } else {
+                    entry.remainingRounds--;
+                }
+                entry = next;
+            }
+        }
+    }
+}
@@ -16,13 +16,18 @@ class QuizPlayingHost {
             timeRemaining: 0,
             currentQuestion: null,
             participants: [],
-            participantScores: {}
+            participantScores: {},
+            connectedOnce: false,
+            leaving: false,
+            reconnectAttempts: 0
         };
         
         this.timers = {
             countdown: null,
-            question: null
+            question: null,
+            questionStart: null
         };
+        this.reconnectTimeout = null;
         
         this.elements = {};
         this.messageHandlers = this.createMessageHandlers();
@@ -64,22 +69,66 @@ class QuizPlayingHost {
             `${window.location.hostname}:8080`;
             
         const { sessionPin, participantId, quizId } = this.config;
-        this.ws = new WebSocket(`${protocol}://${host}/trivia/playingQuiz/${sessionPin}/${participantId}/${quizId}`);
+        const resumeToken = sessionStorage.getItem(this.resumeKey());
+        const query = resumeToken ? `?resume=${encodeURIComponent(resumeToken)}` : '';
+        this.ws = new WebSocket(`${protocol}://${host}/trivia/playingQuiz/${sessionPin}/${participantId}/${quizId}${query}`, [BinaryFrames.SUBPROTOCOL]);
+        this.ws.binaryType = 'arraybuffer';
         
         this.ws.onopen = () => this.onWebSocketOpen();
         this.ws.onmessage = (event) => this.onWebSocketMessage(event);
         this.ws.onerror = (error) => console.error("WebSocket error:", error);
-        this.ws.onclose = (event) => console.log("WebSocket closed:", event.code, event.reason);
+        this.ws.onclose = (event) => this.onWebSocketClose(event);
     }
 
+    resumeKey() {
+        return `trivia.resume.${this.config.sessionPin}.${this.config.participantId}`;
+    }
+
+    // Odbrojavanje i START_QUESTIONS samo pri prvom spajanju; nakon prekida server šalje CATCH_UP
     onWebSocketOpen() {
         console.log("Connected to WebSocket");
+        this.state.reconnectAttempts = 0;
+        if (this.state.connectedOnce) {
+            return;
+        }
+        this.state.connectedOnce = true;
         setTimeout(() => this.startInitialSequence(), 4000);
     }
 
+    // 1000 = server je zamijenio ovu konekciju novijom, 1008 = token nije važeći; tada nema ponovnog spajanja
+    onWebSocketClose(event) {
+        console.log("WebSocket closed:", event.code, event.reason);
+        
+        if (this.state.quizCompleted || this.state.leaving || event.code === 1000) {
+            return;
+        }
+        if (event.code === 1008) {
+            sessionStorage.removeItem(this.resumeKey());
+            this.handleError('Veza sa kvizom je izgubljena.');
+            return;
+        }
+        
+        this.scheduleReconnect();
+    }
+
+    scheduleReconnect() {
+        const attempt = this.state.reconnectAttempts++;
+        const delay = Math.min(10000, 500 * Math.pow(2, attempt)) * (0.5 + Math.random());
+        
+        console.log(`Reconnecting in ${Math.round(delay)} ms`);
+        clearTimeout(this.reconnectTimeout);
+        this.reconnectTimeout = setTimeout(() => this.connectWebSocket(), delay);
+    }
+
     onWebSocketMessage(event) {
         try {
-            const data = JSON.parse(event.data);
+            // server šalje binarne okvire samo ako je dogovoren BinaryFrames.SUBPROTOCOL
+            const data = event.data instanceof ArrayBuffer
+                ? BinaryFrames.decode(event.data)
+                : JSON.parse(event.data);
+            if (!data) {
+                return;
+            }
             const handler = this.messageHandlers[data.type];
             
             if (handler) {
@@ -94,14 +143,18 @@ class QuizPlayingHost {
 
     createMessageHandlers() {
         return {
+            'REDIRECT': (data) => { this.ws = ClusterRedirect.follow(this.ws, data); },
             'JOIN': () => console.log('New participant joined'),
             'PARTICIPANT_LEFT': (data) => this.handleParticipantLeft(data),
             'START_TIMER': () => console.log('Timer started'),
             'FIRST_QUESTION': (data) => this.handleQuestion(data),
             'NEXT_QUESTION': (data) => this.handleQuestion(data),
-            'PARTICIPANT_ANSWERED': (data) => this.handleParticipantAnswered(data),
             'QUIZ_COMPLETED': (data) => this.handleQuizCompleted(data),
             'SCORE_UPDATE': (data) => this.handleScoreUpdate(data),
+            'TICK': (data) => this.handleTick(data),
+            'QUESTION_CLOSED': (data) => this.handleQuestionClosed(data),
+            'SESSION': (data) => sessionStorage.setItem(this.resumeKey(), data.resumeToken),
+            'CATCH_UP': (data) => this.handleCatchUp(data),
             'ERROR': (data) => this.handleError(data.message)
         };
     }
@@ -183,7 +236,28 @@ class QuizPlayingHost {
         this.resetParticipantStatus();
         this.displayQuestion(questionData);
         
-        setTimeout(() => this.startQuestionTimer(questionData.timeLimit), 100);
+        this.timers.questionStart = setTimeout(() => this.startQuestionTimer(questionData.timeLimit), 100);
+    }
+
+    // Stanje nakon ponovnog spajanja: server je već poslao trenutno pitanje ako je otvoreno
+    handleCatchUp(data) {
+        this.showLoading(false);
+        this.clearTimer('countdown');
+        document.getElementById('timerOverlay')?.classList.remove('active');
+        this.state.countdownStarted = true;
+        
+        if (!this.state.currentQuestion || data.questionId !== this.state.currentQuestion.questionId) {
+            return;
+        }
+        
+        this.clearTimer('questionStart');
+        if (!data.questionOpen) {
+            this.handleQuestionClosed(data);
+            return;
+        }
+        
+        const remaining = Math.max(1, Math.ceil(data.remainingMs / 1000));
+        this.startQuestionTimer(this.state.currentQuestion.timeLimit, remaining);
     }
 
     resetParticipantStatus() {
@@ -335,26 +409,26 @@ class QuizPlayingHost {
                     </div>
                     <div class="participant-status">
                         <span class="status-waiting" style="display: ${participant.hasAnswered ? 'none' : 'block'};">Razmišlja...</span>
-                        <span class="status-answered correct" style="display: ${participant.hasAnswered && participant.isCorrect ? 'block' : 'none'};">
+                        <span class="status-answered correct" style="display: ${participant.hasAnswered && participant.isCorrect === true ? 'block' : 'none'};">
                             <i class="fas fa-check"></i> Tačno
                         </span>
-                        <span class="status-answered incorrect" style="display: ${participant.hasAnswered && !participant.isCorrect ? 'block' : 'none'};">
+                        <span class="status-answered incorrect" style="display: ${participant.hasAnswered && participant.isCorrect === false ? 'block' : 'none'};">
                             <i class="fas fa-times"></i> Netačno
                         </span>
                     </div>
                 </div>
                 <div class="participant-indicator">
                     <i class="fas fa-clock waiting-icon" style="display: ${participant.hasAnswered ? 'none' : 'block'};"></i>
-                    <i class="fas fa-check correct-icon" style="display: ${participant.hasAnswered && participant.isCorrect ? 'block' : 'none'};"></i>
-                    <i class="fas fa-times incorrect-icon" style="display: ${participant.hasAnswered && !participant.isCorrect ? 'block' : 'none'};"></i>
+                    <i class="fas fa-check correct-icon" style="display: ${participant.hasAnswered && participant.isCorrect === true ? 'block' : 'none'};"></i>
+                    <i class="fas fa-times incorrect-icon" style="display: ${participant.hasAnswered && participant.isCorrect === false ? 'block' : 'none'};"></i>
                 </div>
             </div>
         `;
     }
 
-    startQuestionTimer(duration) {
+    startQuestionTimer(duration, remaining = duration) {
         this.clearTimer('question');
-        this.state.timeRemaining = duration;
+        this.state.timeRemaining = remaining;
         
         const elements = {
             text: document.getElementById('timerText'),
@@ -367,7 +441,7 @@ class QuizPlayingHost {
             return;
         }
         
-        this.updateTimerDisplay(elements, duration, duration);
+        this.updateTimerDisplay(elements, remaining, duration);
         
         this.timers.question = setInterval(() => {
             this.state.timeRemaining--;
@@ -395,6 +469,21 @@ class QuizPlayingHost {
         this.updateNextQuestionButton();
     }
 
+    // Server zatvara pitanje kad svi odgovore ili istekne rok i sam prelazi dalje nakon nextInMs;
+    // host i dalje može ranije kliknuti na sljedeće pitanje
+    handleQuestionClosed(data) {
+        if (!this.state.currentQuestion || data.questionId !== this.state.currentQuestion.questionId) {
+            return;
+        }
+        
+        this.clearTimer('question');
+        if (!this.state.showCorrectAnswer) {
+            this.showCorrectAnswerToHost();
+        }
+        this.state.canProceedToNext = true;
+        this.updateNextQuestionButton();
+    }
+
     showCorrectAnswerToHost() {
         this.state.showCorrectAnswer = true;
         
@@ -428,12 +517,13 @@ class QuizPlayingHost {
         this.checkIfCanProceed();
     }
 
+    // Dok je pitanje otvoreno stiže samo da je igrač odgovorio; tačnost dolazi nakon QUESTION_CLOSED
     handleParticipantAnswered(data) {
         const participant = this.state.participants.find(p => p.participantId === data.participantId);
         if (participant) {
             participant.hasAnswered = true;
-            participant.isCorrect = data.isCorrect;
-            this.updateParticipantInList(data.participantId, data.isCorrect);
+            participant.isCorrect = data.isCorrect ?? null;
+            this.updateParticipantInList(data.participantId, participant.isCorrect);
             this.updateAnsweredCount();
             this.checkIfCanProceed();
         }
@@ -448,8 +538,31 @@ class QuizPlayingHost {
         this.updateParticipantsList();
     }
 
+    // Server skuplja odgovore i promjene rezultata i šalje ih zajedno nekoliko puta u sekundi;
+    // puni SCORE_UPDATE stiže samo na početku pitanja. Tačnost i changes stižu tek kad se pitanje zatvori.
+    // changes nosi samo igrače kojima se promijenio rezultat, pa se tabela ovdje ponovo sortira da i ostali
+    // dobiju novo mjesto
+    handleTick(data) {
+        (data.answered || []).forEach(answered => this.handleParticipantAnswered(answered));
+        
+        if (!data.changes || data.changes.length === 0) {
+            return;
+        }
+        
+        data.changes.forEach(change => {
+            this.state.participantScores[change.participantId] = change.score;
+            const participant = this.state.participants.find(p => p.participantId === change.participantId);
+            if (participant) {
+                participant.score = change.score;
+            }
+        });
+        this.state.participants.sort((a, b) => (b.score || 0) - (a.score || 0));
+        this.updateParticipantsList();
+    }
+
     handleQuizCompleted(data) {
         this.state.quizCompleted = true;
+        sessionStorage.removeItem(this.resumeKey());
         this.clearAllTimers();
         
         document.querySelector('.quiz-playing-content').innerHTML = `
@@ -504,7 +617,8 @@ class QuizPlayingHost {
         this.clearTimer('question');
         this.sendMessage('HOST_NEXT_QUESTION', {
             sessionId: this.config.sessionPin,
-            quizId: this.config.quizId
+            quizId: this.config.quizId,
+            questionId: this.state.currentQuestion?.questionId
         });
         
         this.state.canProceedToNext = false;
@@ -538,11 +652,16 @@ class QuizPlayingHost {
         if (!item) return;
         
         item.classList.remove('waiting');
-        item.classList.add('answered', isCorrect ? 'correct-answer' : 'wrong-answer');
+        item.classList.add('answered');
         
         this.toggleElements([
             { element: item.querySelector('.status-waiting'), display: 'none' },
-            { element: item.querySelector('.waiting-icon'), display: 'none' },
+            { element: item.querySelector('.waiting-icon'), display: 'none' }
+        ]);
+        if (isCorrect === null) return;
+        
+        item.classList.add(isCorrect ? 'correct-answer' : 'wrong-answer');
+        this.toggleElements([
             { element: item.querySelector(`.status-answered.${isCorrect ? 'correct' : 'incorrect'}`), display: 'block' },
             { element: item.querySelector(`.${isCorrect ? 'correct' : 'incorrect'}-icon`), display: 'block' }
         ]);
@@ -599,8 +718,12 @@ class QuizPlayingHost {
         if (loading) loading.style.display = show ? 'flex' : 'none';
     }
 
+    // Namjerni odlazak hosta završava igru, pa se token briše i nema ponovnog spajanja
     cleanup() {
         console.log('Cleaning up...');
+        this.state.leaving = true;
+        clearTimeout(this.reconnectTimeout);
+        sessionStorage.removeItem(this.resumeKey());
         this.clearAllTimers();
         
         if (this.ws && !this.state.quizCompleted) {
@@ -13,13 +13,16 @@ class QuizPlayingUser {
             selectedAnswer: null,
             timeRemaining: 0,
             quizCompleted: false,
-            answerSubmitted: false
+            answerSubmitted: false,
+            leaving: false,
+            reconnectAttempts: 0
         };
         
         this.timers = {
             countdown: null,
             question: null
         };
+        this.reconnectTimeout = null;
         
         this.messageHandlers = this.createMessageHandlers();
         this.init();
@@ -61,17 +64,59 @@ class QuizPlayingUser {
             `${window.location.hostname}:8080`;
             
         const { sessionPin, participantId, quizId } = this.config;
-        this.ws = new WebSocket(`${protocol}://${host}/trivia/playingQuiz/${sessionPin}/${participantId}/${quizId}`);
-        
-        this.ws.onopen = () => console.log("Connected to WebSocket");
+        const resumeToken = sessionStorage.getItem(this.resumeKey());
+        const query = resumeToken ? `?resume=${encodeURIComponent(resumeToken)}` : '';
+        this.ws = new WebSocket(`${protocol}://${host}/trivia/playingQuiz/${sessionPin}/${participantId}/${quizId}${query}`, [BinaryFrames.SUBPROTOCOL]);
+        this.ws.binaryType = 'arraybuffer';
+        
+        this.ws.onopen = () => {
+            console.log("Connected to WebSocket");
+            this.state.reconnectAttempts = 0;
+        };
         this.ws.onmessage = (event) => this.onWebSocketMessage(event);
         this.ws.onerror = (error) => console.error("WebSocket error:", error);
-        this.ws.onclose = (event) => console.log("WebSocket closed:", event.code, event.reason);
+        this.ws.onclose = (event) => this.onWebSocketClose(event);
+    }
+
+    resumeKey() {
+        return `trivia.resume.${this.config.sessionPin}.${this.config.participantId}`;
+    }
+
+    // 1000 = server je zamijenio ovu konekciju novijom, 1008 = token nije važeći; tada nema ponovnog spajanja
+    onWebSocketClose(event) {
+        console.log("WebSocket closed:", event.code, event.reason);
+        
+        if (this.state.quizCompleted || this.state.leaving || event.code === 1000) {
+            return;
+        }
+        if (event.code === 1008) {
+            sessionStorage.removeItem(this.resumeKey());
+            this.handleError('Veza sa kvizom je izgubljena.');
+            return;
+        }
+        
+        this.scheduleReconnect();
+    }
+
+    // Eksponencijalno čekanje sa slučajnim pomakom, da se igrači nakon zajedničkog prekida ne vrate svi odjednom
+    scheduleReconnect() {
+        const attempt = this.state.reconnectAttempts++;
+        const delay = Math.min(10000, 500 * Math.pow(2, attempt)) * (0.5 + Math.random());
+        
+        console.log(`Reconnecting in ${Math.round(delay)} ms`);
+        clearTimeout(this.reconnectTimeout);
+        this.reconnectTimeout = setTimeout(() => this.connectWebSocket(), delay);
     }
 
     onWebSocketMessage(event) {
         try {
-            const data = JSON.parse(event.data);
+            // server šalje binarne okvire samo ako je dogovoren BinaryFrames.SUBPROTOCOL
+            const data = event.data instanceof ArrayBuffer
+                ? BinaryFrames.decode(event.data)
+                : JSON.parse(event.data);
+            if (!data) {
+                return;
+            }
             const handler = this.messageHandlers[data.type];
             
             if (handler) {
@@ -90,6 +135,12 @@ class QuizPlayingUser {
             'START_QUESTIONS': () => console.log('Questions starting...'),
             'FIRST_QUESTION': (data) => this.handleQuestion(data),
             'NEXT_QUESTION': (data) => this.handleQuestion(data),
+            'ANSWER_RECEIVED': () => console.log('Answer received'),
+            'ANSWER_RESULT': (data) => this.handleAnswerResult(data),
+            'QUESTION_CLOSED': (data) => this.handleQuestionClosed(data),
+            'REDIRECT': (data) => { this.ws = ClusterRedirect.follow(this.ws, data); },
+            'SESSION': (data) => sessionStorage.setItem(this.resumeKey(), data.resumeToken),
+            'CATCH_UP': (data) => this.handleCatchUp(data),
             'HOST_LEFT': () => this.handleHostLeft(),
             'QUIZ_COMPLETED': (data) => this.handleQuizCompleted(data),
             'ERROR': (data) => this.handleError(data.message)
@@ -292,8 +343,8 @@ class QuizPlayingUser {
         });
     }
 
-    startQuestionTimer(duration) {
-        this.state.timeRemaining = duration;
+    startQuestionTimer(duration, remaining = duration) {
+        this.state.timeRemaining = remaining;
         
         const elements = {
             text: document.getElementById('timerText'),
@@ -306,7 +357,7 @@ class QuizPlayingUser {
             return;
         }
         
-        elements.progress.style.width = '100%';
+        this.updateTimerDisplay(elements, duration);
         
         this.timers.question = setInterval(() => {
             this.state.timeRemaining--;
@@ -346,63 +397,89 @@ class QuizPlayingUser {
         this.state.answerSubmitted = true;
         this.clearTimer('question');
         
-        const { isCorrect, answerText } = this.validateAnswer();
-        this.updateUI(isCorrect, answerText);
-        this.sendAnswerToServer(isCorrect);
+        this.lockAnswerInputs();
+        this.sendAnswerToServer();
     }
 
-    validateAnswer() {
-        const correctAnswer = this.state.currentQuestion.answers.find(answer => answer.isCorrect);
-        let isCorrect = false;
-        let answerText = '';
+    // Server ocjenjuje odgovor i vraća ANSWER_RESULT samo ovom igraču, tek nakon QUESTION_CLOSED
+    handleAnswerResult(data) {
+        if (!this.state.currentQuestion || data.questionId !== this.state.currentQuestion.questionId) {
+            return;
+        }
         
-        if (this.state.currentQuestion.questionType === 'TEXT') {
-            const userText = this.state.selectedAnswer?.text?.trim().toLowerCase() || '';
-            const correctText = correctAnswer?.answerText?.trim().toLowerCase() || '';
-            isCorrect = userText === correctText;
-            answerText = correctAnswer.answerText;
-        } else {
-            isCorrect = this.state.selectedAnswer && this.state.selectedAnswer.answerId === correctAnswer.id;
-            answerText = correctAnswer.answerText;
+        const correctAnswerText = data.correctAnswerText || '';
+        
+        if (this.state.currentQuestion.questionType !== 'TEXT') {
+            this.updateMultipleChoiceUI(data.isCorrect, data.correctAnswerId);
         }
         
-        return { isCorrect, answerText };
+        this.showResultMessage(data.isCorrect, correctAnswerText, data.pointsEarned);
     }
 
-    updateUI(isCorrect, correctAnswerText) {
-        this.disableSubmitButton();
-        
-        if (this.state.currentQuestion.questionType === 'TEXT') {
-            this.updateTextAnswerUI(isCorrect, correctAnswerText);
-        } else {
-            this.updateMultipleChoiceUI(isCorrect);
+    // Rok je istekao na serveru; odgovor poslan nakon ovoga se više ne prihvata
+    handleQuestionClosed(data) {
+        if (!this.state.currentQuestion || data.questionId !== this.state.currentQuestion.questionId) {
+            return;
         }
         
-        this.showResultMessage(isCorrect, correctAnswerText);
+        this.clearTimer('question');
+        if (!this.state.answerSubmitted) {
+            // bez odgovora nema ni ANSWER_RESULT, pa se tačan odgovor prikazuje odmah
+            this.state.answerSubmitted = true;
+            this.lockAnswerInputs();
+            if (this.state.currentQuestion.questionType !== 'TEXT') {
+                this.updateMultipleChoiceUI(true, data.correctAnswerId);
+            }
+            this.showResultMessage(false, data.correctAnswerText || '', 0);
+        }
     }
 
-    disableSubmitButton() {
-        const submitBtn = document.getElementById('submitAnswerBtn');
-        submitBtn.disabled = true;
-        submitBtn.innerHTML = '<i class="fas fa-check"></i> Odgovor Poslan';
+    // Stanje nakon ponovnog spajanja: server je već poslao trenutno pitanje ako je otvoreno
+    handleCatchUp(data) {
+        this.showLoading(false);
+        this.clearTimer('countdown');
+        document.getElementById('timerOverlay')?.classList.remove('active');
+        
+        if (!this.state.currentQuestion || data.questionId !== this.state.currentQuestion.questionId) {
+            return;
+        }
+        
+        this.clearTimer('question');
+        if (!data.questionOpen || data.answered) {
+            this.state.answerSubmitted = true;
+            this.lockAnswerInputs();
+            return;
+        }
+        
+        const remaining = Math.max(1, Math.ceil(data.remainingMs / 1000));
+        this.startQuestionTimer(this.state.currentQuestion.timeLimit, remaining);
     }
 
-    updateTextAnswerUI(isCorrect, correctAnswerText) {
+    lockAnswerInputs() {
+        this.disableSubmitButton();
+        
         const textInput = document.getElementById('textAnswerInput');
         if (textInput) {
             textInput.disabled = true;
         }
+        
+        document.querySelectorAll('.answer-option-user')
+            .forEach(option => option.style.pointerEvents = 'none');
+    }
+
+    disableSubmitButton() {
+        const submitBtn = document.getElementById('submitAnswerBtn');
+        submitBtn.disabled = true;
+        submitBtn.innerHTML = '<i class="fas fa-check"></i> Odgovor Poslan';
     }
 
-    updateMultipleChoiceUI(isCorrect) {
+    updateMultipleChoiceUI(isCorrect, correctAnswerId) {
         const options = document.querySelectorAll('.answer-option-user');
-        const correctAnswer = this.state.currentQuestion.answers.find(answer => answer.isCorrect);
         
         options.forEach(option => {
             const answerId = option.dataset.answerId;
-            option.style.pointerEvents = 'none';
             
-            if (answerId === correctAnswer.id) {
+            if (answerId === correctAnswerId) {
                 option.classList.add('correct-answer');
             }
             
@@ -414,7 +491,7 @@ class QuizPlayingUser {
         });
     }
 
-    showResultMessage(isCorrect, correctAnswerText) {
+    showResultMessage(isCorrect, correctAnswerText, pointsEarned) {
         const questionCard = document.querySelector('.question-card-user');
         const submitButton = document.getElementById('submitAnswerBtn');
         
@@ -424,7 +501,7 @@ class QuizPlayingUser {
         if (isCorrect) {
             resultMessage.innerHTML = `
                 <div class="result-message correct">
-                    <span>Tačno! (+${this.state.currentQuestion.points} bodova)</span>
+                    <span>Tačno! (+${pointsEarned} bodova)</span>
                 </div>
             `;
         } else {
@@ -438,18 +515,19 @@ class QuizPlayingUser {
         questionCard.insertBefore(resultMessage, submitButton);
     }
 
-    sendAnswerToServer(isCorrect) {
+    sendAnswerToServer() {
         const answerData = {
             type: 'SUBMIT_ANSWER',
             questionId: this.state.currentQuestion.questionId,
             participantId: this.config.participantId,
             timeRemaining: this.state.timeRemaining,
-            isCorrect,
             ...this.state.selectedAnswer
         };
         
         if (this.ws?.readyState === WebSocket.OPEN) {
-            this.ws.send(JSON.stringify(answerData));
+            this.ws.send(this.ws.protocol === BinaryFrames.SUBPROTOCOL
+                ? BinaryFrames.encodeSubmitAnswer(answerData)
+                : JSON.stringify(answerData));
             console.log('Answer sent:', answerData);
         } else {
             console.error('WebSocket not available');
@@ -463,11 +541,13 @@ class QuizPlayingUser {
 
     handleHostLeft() {
         this.state.quizCompleted = true;
+        sessionStorage.removeItem(this.resumeKey());
         window.location.href = '/trivia';
     }
 
     handleQuizCompleted(data) {
         this.state.quizCompleted = true;
+        sessionStorage.removeItem(this.resumeKey());
         this.clearAllTimers();
         
         document.querySelector('.quiz-playing-content').innerHTML = `
@@ -541,6 +621,8 @@ class QuizPlayingUser {
         }
         
         this.clearAllTimers();
+        clearTimeout(this.reconnectTimeout);
+        this.state.leaving = true;
         
         if (this.ws) {
             this.ws.close();
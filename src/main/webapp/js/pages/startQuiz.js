@@ -107,16 +107,32 @@ const host = isSecure ? window.location.hostname : `${window.location.hostname}:
                 var data = JSON.parse(event.data);
                 console.log("Parsed data:", data);
 
-                if (data.type === 'JOIN') {
-                    console.log("Handling JOIN message");
+                if (data.type === 'REDIRECT') {
+                    ws = ClusterRedirect.follow(ws, data);
+
+                } else if (data.type === 'ROSTER') {
+                    participants = LobbyRoster.snapshot(data)
+                        .map(p => ({ id: p.participantId, name: p.participantName }));
+                    updateParticipantsList();
+
+                } else if (data.type === 'JOIN') {
+                    if (!LobbyRoster.accepts(data, ws)) return;
                     addParticipant(data.name, data.timestamp, data.participantId);
 
                 } else if (data.type === 'LEAVE') {
-                    console.log("Handling LEAVE message for participant:", data.participantId);
+                    if (!LobbyRoster.accepts(data, ws)) return;
                     removeParticipant(data.participantId);
 
                 } else if (data.type === 'HOST_LEFT') {
                     console.log("Host je napustio kviz!");
+
+                } else if (data.type === 'QUIZ_STARTING') {
+                    // server je upisao učesnike i pokrenuo sesiju, tek sada se prelazi na igru
+                    goToQuizPlaying();
+
+                } else if (data.type === 'ERROR') {
+                    setStartPending(false);
+                    alert(data.message);
                 }
                 console.log("=== END WEBSOCKET MESSAGE ===");
             } catch (e) {
@@ -290,7 +306,7 @@ function updateParticipantsList() {
             `;
         } else {
             participantsList.innerHTML = participants.map(participant => `
-                <div class="participant-item">
+                <div class="participant-item" data-participant-id="${participant.id}">
                     <div class="participant-avatar">
                         ${participant.name.charAt(0).toUpperCase()}
                     </div>
@@ -350,17 +366,28 @@ function startQuiz() {
 
     console.log('Pokretanje kviza:', currentQuiz.getId());
 
-    if (ws && ws.readyState === WebSocket.OPEN) {
-        console.log("Šaljem QUIZ_STARTING poruku");
-        const quizStartingMessage = {
-            type: 'QUIZ_STARTING',
-            sessionId: quizPin,
-            message: 'Host je startao kviz'
-        };
-        ws.send(JSON.stringify(quizStartingMessage));
-
+    if (!ws || ws.readyState !== WebSocket.OPEN) {
+        alert('Veza sa serverom nije uspostavljena, pokušajte ponovo');
+        return;
     }
 
+    console.log("Šaljem QUIZ_STARTING poruku");
+    const quizStartingMessage = {
+        type: 'QUIZ_STARTING',
+        sessionId: quizPin,
+        message: 'Host je startao kviz'
+    };
+    setStartPending(true);
+    ws.send(JSON.stringify(quizStartingMessage));
+}
+
+// Dok server ne potvrdi početak, dugme je zaključano da se kviz ne pokrene dvaput
+function setStartPending(pending) {
+    const startButton = document.getElementById('startQuizBtn');
+    if (startButton) startButton.disabled = pending;
+}
+
+function goToQuizPlaying() {
     window.isIntentionalRedirect = true;
     ws.close();
     window.location.href = `quizPlaying.html?sessionPin=${quizPin}&participantId=host&quizId=${currentQuiz.getId()}`;
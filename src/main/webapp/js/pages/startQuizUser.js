@@ -18,13 +18,9 @@ document.addEventListener('DOMContentLoaded', function () {
             if (data.success) {
                 quizId = data.quiz.id;
                 console.log('Quiz ID:', data.quiz.id);
-                console.log('Participanti:', data.participants);
 
 
                 populateQuizData(data.quiz);
-
-
-                populateExistingParticipants(data.participants);
             } else {
                 console.log('Greška:', data.message);
 
@@ -58,8 +54,12 @@ document.addEventListener('DOMContentLoaded', function () {
             var data = JSON.parse(event.data);
             console.log("Parsed data:", data);
 
-            if (data.type === 'JOIN') {
-                console.log("Handling JOIN message");
+            if (data.type === 'REDIRECT') {
+                ws = ClusterRedirect.follow(ws, data);
+            } else if (data.type === 'ROSTER') {
+                populateExistingParticipants(LobbyRoster.snapshot(data));
+            } else if (data.type === 'JOIN') {
+                if (!LobbyRoster.accepts(data, ws)) return;
                 addParticipant(data.name, data.timestamp, data.participantId);
 
 
@@ -68,8 +68,11 @@ document.addEventListener('DOMContentLoaded', function () {
                     isJoined = true;
                     updateJoinButton();
                 }
+            } else if (data.type === 'JOIN_REJECTED') {
+                alert(data.message);
+                updateJoinButton();
             } else if (data.type === 'LEAVE') {
-                console.log("Handling LEAVE message for participant:", data.participantId);
+                if (!LobbyRoster.accepts(data, ws)) return;
                 removeParticipant(data.participantId);
 
 
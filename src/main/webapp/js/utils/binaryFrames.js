@@ -0,0 +1,113 @@
+// Binarni oblik najčešćih okvira igre (protokol trivia.bin.v1); raspored je opisan u BinaryFrames.java.
+// Dekodirani okviri imaju isti oblik kao njihove JSON verzije, pa postojeći handleri rade bez izmjena.
+const BinaryFrames = {
+    SUBPROTOCOL: 'trivia.bin.v1',
+
+    SUBMIT_ANSWER: 0x01,
+    ANSWER_RESULT: 0x81,
+    TICK: 0x82,
+
+    RESULT_CORRECT: 1,
+    RESULT_HIDDEN: 2,
+
+    encoder: new TextEncoder(),
+    decoder: new TextDecoder(),
+
+    decode(buffer) {
+        const view = new DataView(buffer);
+        const reader = { view, offset: 1 };
+
+        switch (view.getUint8(0)) {
+            case this.ANSWER_RESULT:
+                return this.decodeAnswerResult(reader);
+            case this.TICK:
+                return this.decodeTick(reader);
+            default:
+                return null;
+        }
+    },
+
+    decodeAnswerResult(reader) {
+        const data = {
+            type: 'ANSWER_RESULT',
+            questionId: this.readId(reader)
+        };
+        const flags = this.readUint8(reader);
+        data.isCorrect = (flags & 1) !== 0;
+        data.pointsEarned = this.readInt32(reader);
+        if ((flags & 2) !== 0) {
+            data.correctAnswerId = this.readId(reader);
+            data.correctAnswerText = this.readString(reader);
+        }
+        return data;
+    },
+
+    decodeTick(reader) {
+        const data = {
+            type: 'TICK',
+            sessionPin: this.readString(reader),
+            answered: [],
+            changes: []
+        };
+        for (let i = this.readInt32(reader); i > 0; i--) {
+            const answered = { participantId: this.readString(reader) };
+            const result = this.readUint8(reader);
+            if (result !== this.RESULT_HIDDEN) {
+                answered.isCorrect = result === this.RESULT_CORRECT;
+            }
+            data.answered.push(answered);
+        }
+        for (let i = this.readInt32(reader); i > 0; i--) {
+            data.changes.push({
+                participantId: this.readString(reader),
+                score: this.readInt32(reader),
+                rank: this.readInt32(reader)
+            });
+        }
+        return data;
+    },
+
+    encodeSubmitAnswer({ questionId, answerId, text }) {
+        const textBytes = answerId == null && text != null ? this.encoder.encode(text) : null;
+        const size = 1 + 8 + 1 + (answerId != null ? 8 : 0) + (textBytes ? 2 + textBytes.length : 0);
+        const view = new DataView(new ArrayBuffer(size));
+
+        view.setUint8(0, this.SUBMIT_ANSWER);
+        view.setBigInt64(1, BigInt(questionId));
+        if (answerId != null) {
+            view.setUint8(9, 1);
+            view.setBigInt64(10, BigInt(answerId));
+        } else if (textBytes) {
+            view.setUint8(9, 2);
+            view.setUint16(10, textBytes.length);
+            new Uint8Array(view.buffer, 12).set(textBytes);
+        } else {
+            view.setUint8(9, 0);
+        }
+        return view.buffer;
+    },
+
+    readUint8(reader) {
+        return reader.view.getUint8(reader.offset++);
+    },
+
+    readInt32(reader) {
+        const value = reader.view.getInt32(reader.offset);
+        reader.offset += 4;
+        return value;
+    },
+
+    // id-jevi su u JSON okvirima stringovi, pa i ovdje ostaju stringovi
+    readId(reader) {
+        const value = reader.view.getBigInt64(reader.offset);
+        reader.offset += 8;
+        return value.toString();
+    },
+
+    readString(reader) {
+        const length = reader.view.getUint16(reader.offset);
+        const bytes = new Uint8Array(reader.view.buffer, reader.offset + 2, length);
+        reader.offset += 2 + length;
+        return this.decoder.decode(bytes);
+    }
+};
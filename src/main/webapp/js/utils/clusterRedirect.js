@@ -0,0 +1,17 @@
+// Server šalje REDIRECT kad PIN pripada drugom čvoru; veza se otvara na datoj adresi s istim handlerima.
+// onopen se ne prenosi: stranica je otvaranje prve veze već obradila.
+const ClusterRedirect = {
+    follow(ws, data) {
+        const next = new WebSocket(data.url, ws.protocol ? [ws.protocol] : []);
+        next.binaryType = ws.binaryType;
+        next.onmessage = ws.onmessage;
+        next.onerror = ws.onerror;
+        next.onclose = ws.onclose;
+
+        ws.onmessage = null;
+        ws.onerror = null;
+        ws.onclose = null;
+        ws.close();
+        return next;
+    }
+};
@@ -0,0 +1,24 @@
+// Verzionisan spisak čekaonice: pri spajanju server šalje ROSTER (cijeli spisak), a zatim JOIN i LEAVE
+// s narednim brojem verzije. Promjena se primjenjuje samo na spisak kojem slijedi; rupa u verzijama
+// znači izgubljenu poruku, pa se traži novi ROSTER.
+const LobbyRoster = {
+    version: null,
+
+    snapshot(data) {
+        this.version = data.version;
+        return data.participants;
+    },
+
+    accepts(data, ws) {
+        if (this.version === null || data.version <= this.version) {
+            return false;
+        }
+        if (data.version !== this.version + 1) {
+            this.version = null;
+            ws.send(JSON.stringify({ type: 'ROSTER' }));
+            return false;
+        }
+        this.version = data.version;
+        return true;
+    }
+};
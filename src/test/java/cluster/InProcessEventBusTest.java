@@ -0,0 +1,55 @@
+package cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InProcessEventBusTest {
+
+    @Test
+    void heartbeatReachesEverySubscriberOfItsChannel() {
+        InProcessEventBus bus = new InProcessEventBus();
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+        List<String> other = new ArrayList<>();
+        bus.subscribe(Cluster.HEARTBEAT_CHANNEL, first::add);
+        bus.subscribe(Cluster.HEARTBEAT_CHANNEL, second::add);
+        bus.subscribe("quiz.content", other::add);
+
+        bus.publish(Cluster.HEARTBEAT_CHANNEL, "node-2\t123456,654321");
+
+        assertEquals(List.of("node-2\t123456,654321"), first);
+        assertEquals(List.of("node-2\t123456,654321"), second);
+        assertEquals(List.of(), other);
+    }
+
+    @Test
+    void failingListenerDoesNotStopTheOthers() {
+        InProcessEventBus bus = new InProcessEventBus();
+        List<String> received = new ArrayList<>();
+        bus.subscribe(Cluster.HEARTBEAT_CHANNEL, message -> {
+            throw new IllegalStateException("neispravan heartbeat");
+        });
+        bus.subscribe(Cluster.HEARTBEAT_CHANNEL, received::add);
+
+        bus.publish(Cluster.HEARTBEAT_CHANNEL, "node-2\t");
+
+        assertEquals(List.of("node-2\t"), received);
+        assertEquals(1L, bus.snapshot().get("failedListeners"));
+    }
+
+    @Test
+    void closedBusDeliversNothing() {
+        InProcessEventBus bus = new InProcessEventBus();
+        List<String> received = new ArrayList<>();
+        bus.subscribe(Cluster.HEARTBEAT_CHANNEL, received::add);
+
+        bus.close();
+        bus.publish(Cluster.HEARTBEAT_CHANNEL, "node-2\t");
+
+        assertEquals(List.of(), received);
+    }
+}
@@ -0,0 +1,131 @@
+package cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomOwnershipTest {
+
+    private static final RoomOwnership.Node NODE_1 = new RoomOwnership.Node("node-1", "ws://localhost:8080");
+    private static final RoomOwnership.Node NODE_2 = new RoomOwnership.Node("node-2", "ws://localhost:8081");
+    private static final RoomOwnership.Node NODE_3 = new RoomOwnership.Node("node-3", "ws://localhost:8082");
+
+    private final Set<String> heldHere = new HashSet<>();
+
+    @Test
+    void singleNodeOwnsEveryPin() {
+        RoomOwnership ownership = new RoomOwnership(NODE_1, List.of(), 128, 6000, heldHere::contains);
+
+        assertFalse(ownership.isClustered());
+        for (int pin = 0; pin < 100; pin++) {
+            assertTrue(ownership.isLocal(pin(pin)));
+        }
+    }
+
+    @Test
+    void nodesAgreeOnOwnersAndShareThePins() {
+        RoomOwnership first = new RoomOwnership(NODE_1, List.of(NODE_2, NODE_3), 128, 6000, pin -> false);
+        RoomOwnership second = new RoomOwnership(NODE_2, List.of(NODE_1, NODE_3), 128, 6000, pin -> false);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (int pin = 0; pin < 3000; pin++) {
+            RoomOwnership.Node owner = first.ownerOf(pin(pin));
+            assertEquals(owner.getId(), second.ownerOf(pin(pin)).getId());
+            owned.merge(owner.getId(), 1, Integer::sum);
+        }
+        // 128 tačaka po čvoru daje otprilike trećinu svakome
+        for (String node : List.of("node-1", "node-2", "node-3")) {
+            assertTrue(owned.getOrDefault(node, 0) > 700, node + " owns " + owned.get(node));
+        }
+    }
+
+    @Test
+    void nodeLeavingMovesOnlyItsPins() throws InterruptedException {
+        RoomOwnership ownership = new RoomOwnership(NODE_1, List.of(NODE_2, NODE_3), 128, 100, pin -> false);
+        Map<String, String> before = new HashMap<>();
+        for (int pin = 0; pin < 2000; pin++) {
+            before.put(pin(pin), ownership.ownerOf(pin(pin)).getId());
+        }
+
+        Thread.sleep(200);
+        ownership.heartbeat("node-2", Set.of());
+        ownership.expire();
+        assertEquals(List.of("node-1", "node-2"), ownership.liveNodes());
+
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            String now = ownership.ownerOf(entry.getKey()).getId();
+            if (entry.getValue().equals("node-3")) {
+                assertFalse(now.equals("node-3"), "PIN left on a dead node");
+            } else {
+                assertEquals(entry.getValue(), now, "PIN " + entry.getKey() + " moved");
+            }
+        }
+    }
+
+    @Test
+    void pinHeldHereIsNeverRedirected() {
+        RoomOwnership ownership = new RoomOwnership(NODE_1, List.of(NODE_2, NODE_3), 128, 6000, heldHere::contains);
+        String pin = pinOwnedBy(ownership, "node-2");
+
+        assertFalse(ownership.isLocal(pin));
+        heldHere.add(pin);
+        assertTrue(ownership.isLocal(pin));
+
+        // i kad drugi čvor javi da drži isti PIN, soba koja radi ovdje ostaje ovdje
+        ownership.heartbeat("node-2", Set.of(pin));
+        assertSame(NODE_1, ownership.ownerOf(pin));
+    }
+
+    @Test
+    void roomHeldByAnotherLiveNodeStaysThere() {
+        RoomOwnership ownership = new RoomOwnership(NODE_1, List.of(NODE_2, NODE_3), 128, 6000, heldHere::contains);
+        String pin = pinOwnedBy(ownership, "node-1");
+
+        ownership.heartbeat("node-3", Set.of(pin));
+        assertEquals("node-3", ownership.ownerOf(pin).getId());
+        assertFalse(ownership.isLocal(pin));
+    }
+
+    @Test
+    void roomHeldByADeadNodeFallsBackToTheRing() throws InterruptedException {
+        RoomOwnership ownership = new RoomOwnership(NODE_1, List.of(NODE_2, NODE_3), 128, 100, heldHere::contains);
+        String pin = pinOwnedBy(ownership, "node-1");
+        ownership.heartbeat("node-3", Set.of(pin));
+
+        Thread.sleep(200);
+        ownership.heartbeat("node-2", Set.of());
+        ownership.expire();
+
+        assertTrue(ownership.isLocal(pin));
+    }
+
+    @Test
+    void heartbeatFromUnknownNodeIsIgnored() {
+        RoomOwnership ownership = new RoomOwnership(NODE_1, List.of(NODE_2), 128, 6000, heldHere::contains);
+        String pin = pinOwnedBy(ownership, "node-1");
+
+        ownership.heartbeat("node-9", Set.of(pin));
+        assertTrue(ownership.isLocal(pin));
+        assertEquals(List.of("node-1", "node-2"), ownership.liveNodes());
+    }
+
+    private static String pinOwnedBy(RoomOwnership ownership, String nodeId) {
+        for (int pin = 0; ; pin++) {
+            if (ownership.ownerOf(pin(pin)).getId().equals(nodeId))
+                return pin(pin);
+        }
+    }
+
+    private static String pin(int index) {
+        return String.valueOf(100_000 + index);
+    }
+}
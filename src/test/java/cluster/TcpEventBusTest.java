@@ -0,0 +1,117 @@
+package cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Dva čvora na loopback-u, svaki drugome peer
+class TcpEventBusTest {
+
+    private final List<EventBus> buses = new ArrayList<>();
+
+    @AfterEach
+    void closeBuses() {
+        for (EventBus bus : buses) {
+            bus.close();
+        }
+    }
+
+    @Test
+    void heartbeatRoundTrip() throws Exception {
+        int firstPort = freePort();
+        int secondPort = freePort();
+        EventBus first = start(firstPort, secondPort);
+        EventBus second = start(secondPort, firstPort);
+        BlockingQueue<String> atFirst = listen(first);
+        BlockingQueue<String> atSecond = listen(second);
+
+        first.publish(Cluster.HEARTBEAT_CHANNEL, "node-1\t123456");
+        // i izdavač dobija svoj događaj, odmah
+        assertEquals("node-1\t123456", atFirst.poll());
+        assertEquals("node-1\t123456", atSecond.poll(5, TimeUnit.SECONDS));
+
+        second.publish(Cluster.HEARTBEAT_CHANNEL, "node-2\t654321,111111");
+        assertEquals("node-2\t654321,111111", atSecond.poll());
+        assertEquals("node-2\t654321,111111", atFirst.poll(5, TimeUnit.SECONDS));
+
+        // drugi kanal ne stiže slušaocima heartbeat-a
+        first.publish("quiz.content", "node-1");
+        assertNull(atSecond.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void reconnectsToARestartedPeer() throws Exception {
+        int firstPort = freePort();
+        int secondPort = freePort();
+        EventBus first = start(firstPort, secondPort);
+        EventBus second = start(secondPort, firstPort);
+        assertEquals("node-1\t1", roundTrip(first, listen(second), "node-1\t1"));
+
+        second.close();
+        // događaji dok je peer ugašen se gube
+        first.publish(Cluster.HEARTBEAT_CHANNEL, "node-1\t2");
+
+        EventBus restarted = start(secondPort, firstPort);
+        BlockingQueue<String> atRestarted = listen(restarted);
+        // prvi upis u staru vezu može proći prije nego što se primijeti da je zatvorena, pa se šalje dok ne stigne
+        String received = roundTrip(first, atRestarted, "node-1\t3");
+        assertEquals("node-1\t3", received);
+        assertTrue((Long) first.snapshot().get("dropped") >= 1, "lost events were not counted");
+
+        // i obrnuto: novi čvor se sam spaja na stari
+        assertEquals("node-2\t4", roundTrip(restarted, listen(first), "node-2\t4"));
+    }
+
+    private EventBus start(int port, int peerPort) throws IOException {
+        EventBus bus = new TcpEventBus(port,
+                List.of(new InetSocketAddress(InetAddress.getLoopbackAddress(), peerPort)), 100);
+        buses.add(bus);
+        return bus;
+    }
+
+    private static BlockingQueue<String> listen(EventBus bus) {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        bus.subscribe(Cluster.HEARTBEAT_CHANNEL, received::add);
+        return received;
+    }
+
+    // objavljuje isti heartbeat svakih 100 ms dok ga druga strana ne primi; ponovno spajanje čeka do 1 s
+    private static String roundTrip(EventBus from, BlockingQueue<String> to, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            from.publish(Cluster.HEARTBEAT_CHANNEL, message);
+            String received = to.poll(100, TimeUnit.MILLISECONDS);
+            if (received != null)
+                return received;
+        }
+        return null;
+    }
+
+    // ispod efemernog opsega: inače bi spajanje na ugašen peer moglo dobiti baš njegov port kao lokalni
+    // (TCP se spoji sam sa sobom) i zauzeti ga prije ponovnog pokretanja
+    private static int freePort() throws IOException {
+        while (true) {
+            int port = ThreadLocalRandom.current().nextInt(20_000, 30_000);
+            try (ServerSocket socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+                return socket.getLocalPort();
+            } catch (BindException e) {
+                // zauzet, probamo drugi
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledQuizTest {
+
+    private CompiledQuiz quiz;
+
+    @BeforeEach
+    void setUp() {
+        // namjerno izmiješan redoslijed, compile ih slaže po questionOrder
+        Question text = question(3, 3, QuestionType.TEXT, answer(31, "  Sarajevo ", true), answer(32, "Mostar", true));
+        Question choice = question(1, 1, QuestionType.MULTIPLE_CHOICE,
+                answer(11, "A", false), answer(12, "B", true), answer(13, "C", false));
+        Question trueFalse = question(2, 2, QuestionType.TRUE_FALSE, answer(21, "Tačno", false), answer(22, "Netačno", true));
+        quiz = CompiledQuiz.compile(7, 1, List.of(text, choice, trueFalse));
+    }
+
+    @Test
+    void questionsAreInPlayOrder() {
+        assertEquals(3, quiz.getQuestionCount());
+        assertEquals(0, quiz.indexOfQuestion(1));
+        assertEquals(1, quiz.indexOfQuestion(2));
+        assertEquals(2, quiz.indexOfQuestion(3));
+        assertEquals(-1, quiz.indexOfQuestion(99));
+    }
+
+    @Test
+    void gradesChoiceQuestions() {
+        int choice = quiz.indexOfQuestion(1);
+        assertTrue(quiz.grade(choice, quiz.indexOfAnswer(choice, 12), null));
+        assertFalse(quiz.grade(choice, quiz.indexOfAnswer(choice, 11), null));
+        assertFalse(quiz.grade(choice, -1, null), "no answer picked");
+
+        int trueFalse = quiz.indexOfQuestion(2);
+        assertTrue(quiz.grade(trueFalse, quiz.indexOfAnswer(trueFalse, 22), null));
+        assertFalse(quiz.grade(trueFalse, quiz.indexOfAnswer(trueFalse, 21), null));
+    }
+
+    @Test
+    void answerOfAnotherQuestionDoesNotCount() {
+        int choice = quiz.indexOfQuestion(1);
+        assertEquals(-1, quiz.indexOfAnswer(choice, 22));
+        assertEquals(-1, quiz.indexOfAnswer(choice, 999));
+        assertFalse(quiz.grade(choice, quiz.indexOfAnswer(choice, 22), null));
+    }
+
+    @Test
+    void gradesTextIgnoringCaseAndSurroundingSpace() {
+        int text = quiz.indexOfQuestion(3);
+        assertTrue(quiz.grade(text, -1, "sarajevo"));
+        assertTrue(quiz.grade(text, -1, " MOSTAR  "));
+        assertFalse(quiz.grade(text, -1, "Tuzla"));
+        assertFalse(quiz.grade(text, -1, null));
+    }
+
+    @Test
+    void correctAnswerSlotIsTheFirstCorrectAnswer() {
+        int choice = quiz.indexOfQuestion(1);
+        assertEquals(12, quiz.getAnswerId(quiz.getCorrectAnswerSlot(choice)));
+        int text = quiz.indexOfQuestion(3);
+        assertEquals(31, quiz.getAnswerId(quiz.getCorrectAnswerSlot(text)));
+    }
+
+    @Test
+    void questionWithoutCorrectAnswerHasNoSlot() {
+        Question question = question(1, 1, QuestionType.MULTIPLE_CHOICE, answer(1, "A", false), answer(2, "B", false));
+        CompiledQuiz noKey = CompiledQuiz.compile(8, 1, List.of(question));
+        assertEquals(-1, noKey.getCorrectAnswerSlot(0));
+        assertFalse(noKey.grade(0, noKey.indexOfAnswer(0, 1), null));
+    }
+
+    private static Question question(long id, int order, QuestionType type, Answer... answers) {
+        Question question = new Question("Pitanje " + id, null, order);
+        question.setId(id);
+        question.setQuestionType(type);
+        question.setPoints(100);
+        question.setTimeLimit(30);
+        for (Answer answer : answers) {
+            answer.setQuestion(question);
+            question.getAnswers().add(answer);
+        }
+        return question;
+    }
+
+    private static Answer answer(long id, String text, boolean correct) {
+        Answer answer = new Answer(text, null, (int) id, correct);
+        answer.setId(id);
+        return answer;
+    }
+}
@@ -0,0 +1,155 @@
+package service;
+
+import model.ParticipantScore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileSnapshotStoreTest {
+
+    private Path dir;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("snapshots");
+        file = dir.resolve("trivia-snapshots.log");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    void latestSnapshotOfEachRoomSurvivesReopen() throws IOException {
+        FileSnapshotStore store = new FileSnapshotStore(file, 1 << 20);
+        store.save(snapshot("111111", 1));
+        store.save(snapshot("222222", 1));
+        store.save(snapshot("111111", 2));
+        store.sync();
+        store.close();
+
+        Map<String, GameSnapshot> loaded = reopen(1 << 20);
+        assertEquals(2, loaded.size());
+        assertEquals(2, loaded.get("111111").sequence);
+        assertEquals(1, loaded.get("222222").sequence);
+
+        GameSnapshot room = loaded.get("111111");
+        assertEquals("host-token", room.hostToken);
+        assertEquals(2, room.players.size());
+        assertEquals("ana", room.players.get(0).participantId);
+        assertEquals(30, room.players.get(0).score.getTotalScore());
+    }
+
+    @Test
+    void removedRoomIsNotLoaded() throws IOException {
+        FileSnapshotStore store = new FileSnapshotStore(file, 1 << 20);
+        store.save(snapshot("111111", 1));
+        store.save(snapshot("222222", 1));
+        store.remove("111111");
+        store.close();
+
+        assertEquals(List.of("222222"), List.copyOf(reopen(1 << 20).keySet()));
+    }
+
+    @Test
+    void tornTailIsCutOffOnLoad() throws IOException {
+        FileSnapshotStore store = new FileSnapshotStore(file, 1 << 20);
+        store.save(snapshot("111111", 1));
+        store.close();
+        long goodSize = Files.size(file);
+
+        // pad usred upisa: zaglavlje obećava 500 bajtova, a stiglo ih je 7
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(11).putInt(500).put(new byte[] {1, 2, 3, 4, 5, 6, 7}).flip());
+        }
+
+        FileSnapshotStore reopened = new FileSnapshotStore(file, 1 << 20);
+        assertEquals(List.of("111111"), List.copyOf(reopened.loadAll().keySet()));
+        assertEquals(goodSize, Files.size(file));
+
+        // novi zapisi idu odmah iza zadnjeg ispravnog
+        reopened.save(snapshot("222222", 1));
+        reopened.close();
+        assertEquals(2, reopen(1 << 20).size());
+    }
+
+    @Test
+    void recordWithBadChecksumEndsTheLog() throws IOException {
+        FileSnapshotStore store = new FileSnapshotStore(file, 1 << 20);
+        store.save(snapshot("111111", 1));
+        long firstRecordEnd = Files.size(file);
+        store.save(snapshot("222222", 1));
+        store.close();
+
+        // pokvari zadnji bajt (dio CRC-a) drugog zapisa
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) ~last.get(0)}), channel.size() - 1);
+        }
+
+        assertEquals(List.of("111111"), List.copyOf(reopen(1 << 20).keySet()));
+        assertEquals(firstRecordEnd, Files.size(file));
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveRooms() throws IOException {
+        long compactBytes = 4096;
+        FileSnapshotStore store = new FileSnapshotStore(file, compactBytes);
+        for (int sequence = 1; sequence <= 500; sequence++) {
+            store.save(snapshot("111111", sequence));
+            store.save(snapshot("222222", sequence));
+        }
+        store.save(snapshot("333333", 1));
+        store.remove("222222");
+        store.close();
+
+        // bez sažimanja bi fajl imao preko hiljadu zapisa
+        assertTrue(Files.size(file) < 2 * compactBytes, "log was not compacted: " + Files.size(file));
+        assertTrue(Files.notExists(file.resolveSibling(file.getFileName() + ".compact")));
+
+        Map<String, GameSnapshot> loaded = reopen(compactBytes);
+        assertEquals(List.of("111111", "333333"), loaded.keySet().stream().sorted().toList());
+        assertEquals(500, loaded.get("111111").sequence);
+    }
+
+    private Map<String, GameSnapshot> reopen(long compactBytes) throws IOException {
+        FileSnapshotStore store = new FileSnapshotStore(file, compactBytes);
+        try {
+            return store.loadAll();
+        } finally {
+            store.close();
+        }
+    }
+
+    private static GameSnapshot snapshot(String sessionPin, long sequence) {
+        ParticipantScore ana = new ParticipantScore("ana");
+        ana.recordAnswer(true, 30, 1200);
+        ParticipantScore ivan = new ParticipantScore("ivan");
+        ivan.recordAnswer(false, 0, 3000);
+        return new GameSnapshot(sessionPin, 7, 99, sequence, System.currentTimeMillis(), 2, true, 12_000,
+                "host-token", List.of(
+                        new GameSnapshot.Player("ana", "token-ana", true, ana),
+                        new GameSnapshot.Player("ivan", "token-ivan", false, ivan)));
+    }
+}
@@ -0,0 +1,59 @@
+package service;
+
+import model.ParticipantStatus;
+import model.QuizParticipant;
+import model.QuizSession;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ParticipantCacheTest {
+
+    @Test
+    void callersGetCopiesThatDoNotChangeTheCache() {
+        ParticipantCache cache = new ParticipantCache(10);
+        QuizParticipant stored = participant("ana", 1L);
+        cache.put(stored);
+
+        // izmjena originala nakon put ne stiže u keš
+        stored.setTotalScore(500);
+        QuizParticipant first = cache.get("ana");
+        assertEquals(0, (int) first.getTotalScore());
+
+        // ni izmjena vraćene kopije
+        first.setTotalScore(900);
+        first.setStatus(ParticipantStatus.DISCONNECTED);
+        QuizParticipant second = cache.get("ana");
+        assertNotSame(first, second);
+        assertEquals(0, (int) second.getTotalScore());
+        assertEquals(ParticipantStatus.PLAYING, second.getStatus());
+        assertEquals("ana", second.getParticipantName());
+        assertEquals(1L, (long) second.getSession().getId());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndWholeSessions() {
+        ParticipantCache cache = new ParticipantCache(2);
+        cache.put(participant("ana", 1L));
+        cache.put(participant("edo", 2L));
+        cache.get("ana");
+        cache.put(participant("mia", 2L));
+
+        assertNull(cache.get("edo"));
+        assertEquals("ana", cache.get("ana").getParticipantId());
+
+        cache.removeSession(2L);
+        assertNull(cache.get("mia"));
+        assertEquals(1, cache.size());
+    }
+
+    private static QuizParticipant participant(String participantId, Long sessionId) {
+        QuizSession session = new QuizSession();
+        session.setId(sessionId);
+        QuizParticipant participant = new QuizParticipant(session, participantId, participantId);
+        participant.setStatus(ParticipantStatus.PLAYING);
+        return participant;
+    }
+}
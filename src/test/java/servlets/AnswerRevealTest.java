@@ -0,0 +1,82 @@
+package servlets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class AnswerRevealTest {
+
+    private static final String PIN = "900011";
+    private static final long QUIZ_ID = 11;
+
+    @Test
+    void correctnessAndScoresStayHiddenUntilTheQuestionCloses() throws Exception {
+        PlayingSocket endpoint = new PlayingSocket(
+                quizId -> CompletableFuture.completedFuture(Optional.of(TestQuizzes.choiceQuiz(quizId, 2))));
+        FakeSession host = connect(endpoint, "host");
+        FakeSession ana = connect(endpoint, "ana");
+        FakeSession edo = connect(endpoint, "edo");
+
+        endpoint.onMessage("{\"type\":\"START_QUESTIONS\",\"quizId\":\"" + QUIZ_ID + "\"}", host.session);
+        assertNotNull(ana.await(FakeSession.type("FIRST_QUESTION"), 2000), "question never arrived");
+
+        endpoint.onMessage(answer(TestQuizzes.correctAnswer(1)), ana.session);
+        assertNotNull(ana.await(FakeSession.type("ANSWER_RECEIVED"), 2000));
+        // tick ide svakih 100 ms, pa bar jedan stigne dok je pitanje još otvoreno
+        assertNotNull(host.await(text -> text.startsWith("{\"type\":\"TICK\"") && text.contains("\"ana\""), 2000),
+                "no TICK while the question was open");
+
+        endpoint.onMessage(answer(TestQuizzes.wrongAnswer(1)), edo.session);
+        assertNotNull(host.await(FakeSession.type("QUESTION_CLOSED"), 2000), "question never closed");
+        assertNotNull(ana.await(FakeSession.type("ANSWER_RESULT"), 2000));
+
+        for (FakeSession socket : List.of(host, ana, edo)) {
+            for (String frame : beforeClose(socket)) {
+                assertFalse(frame.contains("\"isCorrect\""), "correctness leaked before close: " + frame);
+                assertFalse(frame.contains("\"score\"") || frame.contains("\"rank\"") || frame.contains("\"scores\""),
+                        "score leaked before close: " + frame);
+                assertFalse(frame.contains("pointsEarned"), "result leaked before close: " + frame);
+            }
+        }
+
+        // nakon zatvaranja isti podaci stižu svima
+        assertNotNull(host.await(text -> text.startsWith("{\"type\":\"TICK\"")
+                && text.contains("{\"participantId\":\"ana\",\"isCorrect\":true}")
+                && text.contains("\"changes\":[{\"participantId\":\"ana\",\"score\":"), 2000),
+                "results were not revealed after close");
+        assertNotNull(edo.await(text -> text.startsWith("{\"type\":\"ANSWER_RESULT\"")
+                && text.contains("\"isCorrect\":false"), 2000));
+
+        endpoint.onClose(ana.session);
+        endpoint.onClose(edo.session);
+        endpoint.onClose(host.session);
+    }
+
+    private static FakeSession connect(PlayingSocket endpoint, String participantId) {
+        FakeSession socket = new FakeSession("/trivia/playingQuiz/" + PIN + "/" + participantId + "/" + QUIZ_ID);
+        endpoint.onOpen(socket.session, PIN, participantId);
+        return socket;
+    }
+
+    private static String answer(long answerId) {
+        return "{\"type\":\"SUBMIT_ANSWER\",\"questionId\":\"1\",\"answerId\":\"" + answerId + "\"}";
+    }
+
+    // domaćin dobija pitanje s ključem odgovora, pa se okviri pitanja ne računaju kao curenje
+    private static List<String> beforeClose(FakeSession socket) {
+        List<String> frames = new ArrayList<>();
+        for (String text : socket.texts()) {
+            if (text.startsWith("{\"type\":\"QUESTION_CLOSED\""))
+                break;
+            if (!text.startsWith("{\"type\":\"FIRST_QUESTION\""))
+                frames.add(text);
+        }
+        return frames;
+    }
+}
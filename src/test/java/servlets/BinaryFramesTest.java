@@ -0,0 +1,126 @@
+package servlets;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryFramesTest {
+
+    @Test
+    void decodesSubmitWithAnswerId() {
+        ByteBuffer frame = ByteBuffer.allocate(18).put(BinaryFrames.SUBMIT_ANSWER).putLong(42).put((byte) 1).putLong(7);
+        frame.flip();
+
+        assertEquals(BinaryFrames.SUBMIT_ANSWER, BinaryFrames.opcode(frame));
+        BinaryFrames.Submission submission = BinaryFrames.decodeSubmitAnswer(frame);
+        assertEquals(42, submission.questionId);
+        assertEquals(Long.valueOf(7), submission.answerId);
+        assertNull(submission.text);
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    void decodesSubmitWithText() {
+        byte[] text = "Čačak i Žepče".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(1 + 8 + 1 + 2 + text.length)
+                .put(BinaryFrames.SUBMIT_ANSWER).putLong(42).put((byte) 2).putShort((short) text.length).put(text);
+        frame.flip();
+
+        BinaryFrames.Submission submission = BinaryFrames.decodeSubmitAnswer(frame);
+        assertNull(submission.answerId);
+        assertEquals("Čačak i Žepče", submission.text);
+    }
+
+    @Test
+    void decodesSubmitWithoutAnswer() {
+        ByteBuffer frame = ByteBuffer.allocate(10).put(BinaryFrames.SUBMIT_ANSWER).putLong(42).put((byte) 0);
+        frame.flip();
+
+        BinaryFrames.Submission submission = BinaryFrames.decodeSubmitAnswer(frame);
+        assertNull(submission.answerId);
+        assertNull(submission.text);
+    }
+
+    @Test
+    void rejectsUnknownAnswerKind() {
+        ByteBuffer frame = ByteBuffer.allocate(10).put(BinaryFrames.SUBMIT_ANSWER).putLong(42).put((byte) 9);
+        frame.flip();
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryFrames.decodeSubmitAnswer(frame));
+    }
+
+    @Test
+    void emptyFrameHasNoOpcode() {
+        assertEquals(-1, BinaryFrames.opcode(ByteBuffer.allocate(0)));
+    }
+
+    @Test
+    void answerResultRoundTrip() {
+        ByteBuffer frame = BinaryFrames.answerResult(42, true, 150, 7L, "Sarajevo");
+
+        assertEquals(BinaryFrames.ANSWER_RESULT, frame.get());
+        assertEquals(42, frame.getLong());
+        byte flags = frame.get();
+        assertEquals(1, flags & 1, "isCorrect");
+        assertEquals(2, flags & 2, "has correct answer");
+        assertEquals(150, frame.getInt());
+        assertEquals(7, frame.getLong());
+        assertEquals("Sarajevo", readString(frame));
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    void answerResultWithoutCorrectAnswer() {
+        ByteBuffer frame = BinaryFrames.answerResult(42, false, 0, null, "ignored");
+
+        frame.get();
+        frame.getLong();
+        assertEquals(0, frame.get());
+        assertEquals(0, frame.getInt());
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    void tickRoundTrip() {
+        List<TickBatch.Answered> answered = List.of(
+                new TickBatch.Answered("ana", true), new TickBatch.Answered("đorđe", false),
+                new TickBatch.Answered("mia", null));
+        List<Leaderboard.Standing> changes = List.of(new Leaderboard.Standing("ana", 300, 1));
+
+        ByteBuffer frame = BinaryFrames.tick("123456", answered, changes);
+
+        assertEquals(BinaryFrames.TICK, frame.get());
+        assertEquals("123456", readString(frame));
+        assertEquals(3, frame.getInt());
+        assertEquals("ana", readString(frame));
+        assertEquals(1, frame.get());
+        assertEquals("đorđe", readString(frame));
+        assertEquals(0, frame.get());
+        assertEquals("mia", readString(frame));
+        assertEquals(2, frame.get());
+        assertEquals(1, frame.getInt());
+        assertEquals("ana", readString(frame));
+        assertEquals(300, frame.getInt());
+        assertEquals(1, frame.getInt());
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    void framesAreReadOnly() {
+        assertTrue(BinaryFrames.tick("1", List.of(), List.of()).isReadOnly());
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
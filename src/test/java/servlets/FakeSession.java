@@ -0,0 +1,153 @@
+package servlets;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Konekcija bez kontejnera: pamti sve što joj server pošalje, ili to samo predaje testu.
+// Slanje se završava odmah, osim ako test ne zadrži slanja da bi glumio klijenta koji sporo čita
+final class FakeSession {
+
+    static final class Sent {
+        final String text;
+        final long atNanos;
+
+        Sent(String text, long atNanos) {
+            this.text = text;
+            this.atNanos = atNanos;
+        }
+    }
+
+    private static final AtomicLong ids = new AtomicLong();
+
+    final Session session;
+    private final List<Sent> sent = new CopyOnWriteArrayList<>();
+    private final Deque<SendHandler> unfinished = new ArrayDeque<>();
+    private final AtomicBoolean open = new AtomicBoolean(true);
+    private volatile boolean holdSends;
+
+    FakeSession(String path) {
+        this(path, null);
+    }
+
+    // s onFrame se okviri ne pamte, da testovi sa hiljadama konekcija ne drže sve u memoriji
+    FakeSession(String path, Consumer<String> onFrame) {
+        String id = "socket-" + ids.incrementAndGet();
+        Map<String, Object> userProperties = new ConcurrentHashMap<>();
+        URI uri = URI.create(path);
+
+        RemoteEndpoint.Async remote = (RemoteEndpoint.Async) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {RemoteEndpoint.Async.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("sendText") && args.length == 2) {
+                        if (onFrame != null)
+                            onFrame.accept((String) args[0]);
+                        else
+                            sent.add(new Sent((String) args[0], System.nanoTime()));
+                        complete((SendHandler) args[1]);
+                    }
+                    return null;
+                });
+
+        session = (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId", "toString" -> id;
+                    case "getUserProperties" -> userProperties;
+                    case "getRequestParameterMap" -> Map.of();
+                    case "isOpen" -> open.get();
+                    case "close" -> {
+                        open.set(false);
+                        yield null;
+                    }
+                    case "getAsyncRemote" -> remote;
+                    case "getRequestURI" -> uri;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    private void complete(SendHandler handler) {
+        synchronized (unfinished) {
+            if (holdSends) {
+                unfinished.add(handler);
+                return;
+            }
+        }
+        handler.onResult(new SendResult());
+    }
+
+    // klijent prestaje čitati: slanja ostaju nezavršena do releaseSends
+    void holdSends() {
+        synchronized (unfinished) {
+            holdSends = true;
+        }
+    }
+
+    void releaseSends() {
+        while (true) {
+            SendHandler handler;
+            synchronized (unfinished) {
+                handler = unfinished.poll();
+                if (handler == null) {
+                    holdSends = false;
+                    return;
+                }
+            }
+            handler.onResult(new SendResult());
+        }
+    }
+
+    boolean isOpen() {
+        return open.get();
+    }
+
+    void close() {
+        open.set(false);
+    }
+
+    List<String> texts() {
+        List<String> texts = new ArrayList<>(sent.size());
+        for (Sent frame : sent) {
+            texts.add(frame.text);
+        }
+        return texts;
+    }
+
+    // čeka prvi okvir koji zadovoljava uslov; null ako ne stigne na vrijeme
+    Sent await(Predicate<String> condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (true) {
+            for (Sent frame : sent) {
+                if (condition.test(frame.text))
+                    return frame;
+            }
+            if (System.nanoTime() > deadline)
+                return null;
+            // kratko čekanje, da izmjerena kašnjenja budu kašnjenja servera, a ne ovog petljanja
+            LockSupport.parkNanos(100_000);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    static Predicate<String> type(String type) {
+        return text -> text.startsWith("{\"type\":\"" + type + "\"");
+    }
+}
@@ -0,0 +1,45 @@
+package servlets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HostCommandsTest {
+
+    private static final String PIN = "900015";
+
+    @Test
+    void playersCannotStartOrEndTheGame() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        PlayingSocket endpoint = new PlayingSocket(quizId -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(Optional.of(TestQuizzes.choiceQuiz(quizId, 2)));
+        });
+        FakeSession host = connect(endpoint, "HOST");
+        FakeSession ana = connect(endpoint, "ana");
+
+        endpoint.onMessage("{\"type\":\"START_QUESTIONS\",\"quizId\":\"15\"}", ana.session);
+        endpoint.onMessage("{\"type\":\"HOST_LEFT\"}", ana.session);
+        assertEquals(0, loads.get(), "a player loaded the quiz");
+        assertNull(host.await(FakeSession.type("HOST_LEFT"), 300), "a player ended the game");
+
+        endpoint.onMessage("{\"type\":\"START_QUESTIONS\",\"quizId\":\"15\"}", host.session);
+        assertNotNull(ana.await(FakeSession.type("FIRST_QUESTION"), 2000), "the host could not start the game");
+        assertEquals(1, loads.get());
+
+        endpoint.onClose(ana.session);
+        endpoint.onClose(host.session);
+    }
+
+    private static FakeSession connect(PlayingSocket endpoint, String participantId) {
+        FakeSession socket = new FakeSession("/trivia/playingQuiz/" + PIN + "/" + participantId + "/15");
+        endpoint.onOpen(socket.session, PIN, participantId);
+        return socket;
+    }
+}
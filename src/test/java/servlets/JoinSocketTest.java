@@ -0,0 +1,40 @@
+package servlets;
+
+import model.QuizSession;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JoinSocketTest {
+
+    @Test
+    void secondJoinWhileTheSessionLoadsIsIgnored() {
+        String pin = "900021";
+        CompletableFuture<Optional<QuizSession>> loading = new CompletableFuture<>();
+        JoinSocket endpoint = new JoinSocket(lobby -> loading);
+        FakeSession socket = new FakeSession("/trivia/joinQuizSocket/" + pin);
+        endpoint.onOpen(socket.session, pin);
+
+        // oba JOIN-a stignu prije nego se sesija učita
+        endpoint.onMessage("{\"type\":\"JOIN\",\"name\":\"Ana\"}", socket.session);
+        endpoint.onMessage("{\"type\":\"JOIN\",\"name\":\"Ana 2\"}", socket.session);
+        QuizSession session = new QuizSession();
+        session.setSessionPin(pin);
+        loading.complete(Optional.of(session));
+
+        Lobby lobby = JoinSocket.findLobby(pin);
+        assertEquals(1, lobby.participants().size(), "orphan participant in the lobby");
+        assertEquals(1, socket.texts().stream().filter(FakeSession.type("JOIN")).count());
+
+        // igrač koji je ušao izlazi s konekcijom, pa čekaonica ostaje prazna
+        endpoint.onMessage("{\"type\":\"LEAVE\"}", socket.session);
+        assertEquals(0, lobby.participants().size());
+        socket.close();
+        endpoint.onClose(socket.session);
+        assertNull(JoinSocket.findLobby(pin));
+    }
+}
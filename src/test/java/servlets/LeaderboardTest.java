@@ -0,0 +1,126 @@
+package servlets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LeaderboardTest {
+
+    private final Leaderboard leaderboard = new Leaderboard();
+
+    @Test
+    void ordersByScoreThenParticipantId() {
+        leaderboard.update("c", 10);
+        leaderboard.update("a", 30);
+        leaderboard.update("b", 10);
+        leaderboard.update("d", 20);
+
+        assertEquals(List.of("a", "d", "b", "c"), ids(leaderboard.top(10)));
+        assertEquals(List.of(1, 2, 3, 4), ranks(leaderboard.top(10)));
+    }
+
+    @Test
+    void updateReturnsTheNewStanding() {
+        leaderboard.update("a", 10);
+        leaderboard.update("b", 20);
+
+        Leaderboard.Standing standing = leaderboard.update("a", 50);
+        assertEquals(50, standing.score);
+        assertEquals(1, standing.rank);
+        assertEquals(2, leaderboard.standing("b").rank);
+        assertEquals(2, leaderboard.size());
+    }
+
+    @Test
+    void unchangedScoreKeepsRank() {
+        leaderboard.update("a", 10);
+        leaderboard.update("b", 20);
+
+        assertEquals(2, leaderboard.update("a", 10).rank);
+        assertEquals(2, leaderboard.size());
+    }
+
+    @Test
+    void standingOfUnknownParticipantIsNull() {
+        assertNull(leaderboard.standing("nobody"));
+    }
+
+    @Test
+    void removedParticipantLeavesTheRanking() {
+        leaderboard.update("a", 30);
+        leaderboard.update("b", 20);
+        leaderboard.update("c", 10);
+
+        leaderboard.remove("a");
+        leaderboard.remove("nobody");
+
+        assertNull(leaderboard.standing("a"));
+        assertEquals(1, leaderboard.standing("b").rank);
+        assertEquals(2, leaderboard.standing("c").rank);
+        assertEquals(2, leaderboard.size());
+    }
+
+    @Test
+    void clearEmptiesTheRanking() {
+        leaderboard.update("a", 30);
+        leaderboard.clear();
+
+        assertEquals(0, leaderboard.size());
+        assertEquals(List.of(), leaderboard.top(5));
+        assertNull(leaderboard.standing("a"));
+    }
+
+    @Test
+    void topIsCappedAtK() {
+        for (int i = 0; i < 20; i++) {
+            leaderboard.update("p" + i, i);
+        }
+        assertEquals(List.of("p19", "p18", "p17"), ids(leaderboard.top(3)));
+    }
+
+    @Test
+    void matchesSortedRankingAfterRandomUpdates() {
+        Random random = new Random(42);
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            String participantId = "p" + random.nextInt(300);
+            if (random.nextInt(10) == 0) {
+                leaderboard.remove(participantId);
+                expected.remove(participantId);
+            } else {
+                // mali raspon rezultata, da bude puno izjednačenih
+                int score = random.nextInt(50);
+                leaderboard.update(participantId, score);
+                expected.put(participantId, score);
+            }
+        }
+
+        List<String> sorted = new ArrayList<>(expected.keySet());
+        sorted.sort(Comparator.<String>comparingInt(expected::get).reversed().thenComparing(Comparator.naturalOrder()));
+
+        assertEquals(sorted, ids(leaderboard.top(Integer.MAX_VALUE)));
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(i + 1, leaderboard.standing(sorted.get(i)).rank);
+        }
+    }
+
+    private static List<String> ids(List<Leaderboard.Standing> standings) {
+        List<String> ids = new ArrayList<>();
+        standings.forEach(standing -> ids.add(standing.participantId));
+        return ids;
+    }
+
+    private static List<Integer> ranks(List<Leaderboard.Standing> standings) {
+        List<Integer> ranks = new ArrayList<>();
+        standings.forEach(standing -> ranks.add(standing.rank));
+        return ranks;
+    }
+}
@@ -0,0 +1,166 @@
+package servlets;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import model.QuizSession;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 100k igrača ulazi i izlazi iz čekaonica preko JoinSocket, na mnogo PIN-ova i niti odjednom.
+// Memorija ostaje ravna samo ako se svaka čekaonica povuče iz registra kad ode zadnja konekcija.
+// Traje desetinama sekundi, pa ide samo uz gradle soakTest
+@Tag("soak")
+class LobbySoakTest {
+
+    private static final int PLAYERS = 100_000;
+    private static final int PER_ROUND = 20;
+    private static final int PINS = 200;
+
+    private final AtomicInteger joinsSeen = new AtomicInteger();
+    private final AtomicInteger versionGaps = new AtomicInteger();
+    private final AtomicInteger namesNotReleased = new AtomicInteger();
+    private final Set<Lobby> lobbiesSeen = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void lobbiesAreReleasedAfterAllPlayersLeave() throws Exception {
+        JoinSocket endpoint = new JoinSocket(lobby -> {
+            QuizSession session = new QuizSession();
+            session.setSessionPin(lobby.getSessionPin());
+            return CompletableFuture.completedFuture(Optional.of(session));
+        });
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        List<Future<?>> rounds = new ArrayList<>();
+        for (int round = 0; round < PLAYERS / PER_ROUND; round++) {
+            int current = round;
+            rounds.add(threads.submit(() -> playRound(endpoint, current)));
+        }
+        for (Future<?> round : rounds) {
+            round.get(60, TimeUnit.SECONDS);
+        }
+        threads.shutdown();
+
+        // igrači kojima je samo pukla veza uklanjaju se tek nakon roka za povratak (trivia.lobby.leaveGraceMs)
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (JoinSocket.lobbyCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, JoinSocket.lobbyCount(), "lobbies left in the registry");
+        for (int pin = 0; pin < PINS; pin++) {
+            assertNull(JoinSocket.findLobby(pin(pin)));
+        }
+        for (Lobby lobby : lobbiesSeen) {
+            assertEquals(0, lobby.pendingLeaveCount(), "pending leaves left in " + lobby.getSessionPin());
+            assertTrue(lobby.participants().isEmpty(), "players left in " + lobby.getSessionPin());
+        }
+
+        // svaki igrač (i svaki koji se vratio pod istim imenom) je vidio sebe kako ulazi, i niko nije preskočio verziju
+        assertEquals(PLAYERS + PLAYERS / PER_ROUND, joinsSeen.get(), "own joins seen");
+        assertEquals(0, versionGaps.get(), "roster changes arrived out of order");
+        assertEquals(0, namesNotReleased.get(), "names still taken after their players left");
+    }
+
+    // igrači jedne runde uđu u istu čekaonicu pa izađu; prvom igraču runde samo pukne veza
+    private void playRound(JoinSocket endpoint, int round) {
+        String pin = pin(round % PINS);
+        List<FakeSession> sockets = new ArrayList<>(PER_ROUND);
+        for (int i = 0; i < PER_ROUND; i++) {
+            FakeSession socket = join(endpoint, pin, name(round, i), new RosterCheck(name(round, i)));
+            sockets.add(socket);
+        }
+        for (int i = 0; i < PER_ROUND; i++) {
+            FakeSession socket = sockets.get(i);
+            if (i > 0)
+                endpoint.onMessage("{\"type\":\"LEAVE\"}", socket.session);
+            socket.close();
+            endpoint.onClose(socket.session);
+        }
+
+        // ime igrača koji je izašao je odmah slobodno
+        RosterCheck again = new RosterCheck(name(round, 1));
+        FakeSession returning = join(endpoint, pin, name(round, 1), again);
+        if (!again.joined)
+            namesNotReleased.incrementAndGet();
+        endpoint.onMessage("{\"type\":\"LEAVE\"}", returning.session);
+        returning.close();
+        endpoint.onClose(returning.session);
+
+        // veza koja se zatvori bez prijave ne smije ostaviti čekaonicu
+        FakeSession lurker = new FakeSession(path(pin), text -> { });
+        endpoint.onOpen(lurker.session, pin);
+        lurker.close();
+        endpoint.onClose(lurker.session);
+    }
+
+    private FakeSession join(JoinSocket endpoint, String pin, String name, RosterCheck check) {
+        FakeSession socket = new FakeSession(path(pin), check);
+        endpoint.onOpen(socket.session, pin);
+        // dok je konekcija u čekaonici, čekaonica se ne može povući, pa je registar drži pod ovim PIN-om
+        lobbiesSeen.add(JoinSocket.findLobby(pin));
+        endpoint.onMessage("{\"type\":\"JOIN\",\"name\":\"" + name + "\"}", socket.session);
+        return socket;
+    }
+
+    // okviri čekaonice kako ih vidi jedna konekcija: nakon ROSTER-a svaka promjena nosi sljedeću verziju
+    private final class RosterCheck implements Consumer<String> {
+        private final String name;
+        private long version = -1;
+        volatile boolean joined;
+
+        RosterCheck(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public synchronized void accept(String text) {
+            JsonObject frame = JsonParser.parseString(text).getAsJsonObject();
+            String type = frame.get("type").getAsString();
+            if (type.equals("ROSTER")) {
+                version = frame.get("version").getAsLong();
+                return;
+            }
+            if (!type.equals("JOIN") && !type.equals("LEAVE"))
+                return;
+
+            // promjene objavljene prije ROSTER-a stižu prije njega i već su u njemu
+            long changed = frame.get("version").getAsLong();
+            if (version >= 0) {
+                if (changed != version + 1)
+                    versionGaps.incrementAndGet();
+                version = changed;
+            }
+            if (type.equals("JOIN") && name.equals(frame.get("name").getAsString())) {
+                joined = true;
+                joinsSeen.incrementAndGet();
+            }
+        }
+    }
+
+    private static String name(int round, int index) {
+        return "igrac-" + round + "-" + index;
+    }
+
+    private static String path(String sessionPin) {
+        return "/trivia/joinQuizSocket/" + sessionPin;
+    }
+
+    private static String pin(int index) {
+        return String.valueOf(100_000 + index);
+    }
+}
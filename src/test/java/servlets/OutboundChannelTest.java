@@ -0,0 +1,93 @@
+package servlets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundChannelTest {
+
+    @Test
+    void newestScoreUpdateSurvivesOverflow() {
+        FakeSession client = slowClient();
+        OutboundChannel channel = OutboundChannel.of(client.session);
+        channel.send(message(0));
+        for (int i = 1; i <= OutboundChannel.QUEUE_CAPACITY - 3; i++) {
+            channel.send(message(i));
+        }
+        channel.send(scores(1));
+        channel.send(scores(2));
+        channel.send(scores(3));
+
+        // red je pun; novi SCORE_UPDATE istiskuje starije, a ostale poruke ostaju redom
+        channel.send(scores(4));
+        channel.send(message(99));
+        client.releaseSends();
+
+        assertTrue(client.isOpen());
+        List<String> sent = client.texts();
+        assertEquals(OutboundChannel.QUEUE_CAPACITY, sent.size());
+        for (int i = 0; i <= OutboundChannel.QUEUE_CAPACITY - 3; i++) {
+            assertEquals(message(i).text, sent.get(i));
+        }
+        assertEquals(scores(4).text, sent.get(sent.size() - 2));
+        assertEquals(message(99).text, sent.get(sent.size() - 1));
+    }
+
+    @Test
+    void queuedScoreUpdateIsKeptWhenAnotherFrameOverflows() {
+        FakeSession client = slowClient();
+        OutboundChannel channel = OutboundChannel.of(client.session);
+        channel.send(message(0));
+        for (int i = 1; i <= OutboundChannel.QUEUE_CAPACITY - 2; i++) {
+            channel.send(message(i));
+        }
+        channel.send(scores(1));
+        channel.send(scores(2));
+
+        channel.send(message(99));
+        client.releaseSends();
+
+        assertTrue(client.isOpen());
+        List<String> sent = client.texts();
+        assertFalse(sent.contains(scores(1).text));
+        assertEquals(scores(2).text, sent.get(sent.size() - 2));
+        assertEquals(message(99).text, sent.get(sent.size() - 1));
+    }
+
+    @Test
+    void clientThatStopsReadingIsDisconnected() {
+        FakeSession client = slowClient();
+        OutboundChannel channel = OutboundChannel.of(client.session);
+        channel.send(message(0));
+        for (int i = 1; i <= OutboundChannel.QUEUE_CAPACITY; i++) {
+            channel.send(message(i));
+        }
+        assertTrue(client.isOpen());
+
+        // ništa se ne može odbaciti, pa se klijent prekida umjesto da red raste
+        channel.send(message(99));
+        assertFalse(client.isOpen());
+        client.releaseSends();
+        channel.send(message(100));
+        assertEquals(List.of(message(0).text), client.texts());
+    }
+
+    // prvi okvir ostaje na putu, pa svi sljedeći čekaju u redu
+    private static FakeSession slowClient() {
+        FakeSession client = new FakeSession("/trivia/playingQuiz/1/ana/1");
+        client.holdSends();
+        return client;
+    }
+
+    private static Frame message(int n) {
+        return Frame.of("{\"type\":\"MESSAGE\",\"n\":" + n + "}");
+    }
+
+    private static Frame scores(int n) {
+        return new Frame("SCORE_UPDATE", "{\"type\":\"SCORE_UPDATE\",\"n\":" + n + "}", true);
+    }
+}
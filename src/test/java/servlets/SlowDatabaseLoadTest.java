@@ -0,0 +1,144 @@
+package servlets;
+
+import model.QuizSession;
+import org.junit.jupiter.api.Test;
+import util.DbExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sobe i čekaonice dok baza stoji: odgovori i prijave idu kroz prave onMessage putanje i dobijaju
+// ANSWER_RECEIVED i JOIN za nekoliko milisekundi, a START_QUESTIONS koji čeka bazu stigne kad baza proradi
+class SlowDatabaseLoadTest {
+
+    private static final int ROOMS = 50;
+    private static final int PLAYERS_PER_ROOM = 10;
+    private static final long DB_DELAY_MS = 1500;
+
+    // svaki upit kroz ove izvore spava ovoliko; na početku je baza brza
+    private volatile long dbDelayMs;
+
+    private final PlayingSocket game = new PlayingSocket(quizId -> slowDb(() -> Optional.of(TestQuizzes.choiceQuiz(quizId, 2))));
+    private final JoinSocket join = new JoinSocket(lobby -> slowDb(() -> {
+        QuizSession session = new QuizSession();
+        session.setSessionPin(lobby.getSessionPin());
+        return Optional.of(session);
+    }));
+
+    @Test
+    void roomsAndLobbiesStayResponsiveWhileTheDatabaseIsSlow() throws Exception {
+        // dok je baza brza: sobe su na prvom pitanju, a čekaonice su učitale svoje sesije
+        List<List<FakeSession>> rooms = new ArrayList<>();
+        for (int room = 0; room < ROOMS; room++) {
+            rooms.add(startRoom(gamePin(room)));
+        }
+        for (List<FakeSession> players : rooms) {
+            for (FakeSession player : players) {
+                assertNotNull(player.await(FakeSession.type("FIRST_QUESTION"), 10_000), "room never started");
+            }
+        }
+        for (int lobby = 0; lobby < ROOMS; lobby++) {
+            FakeSession host = openLobby(lobbyPin(lobby));
+            assertNotNull(host.await(FakeSession.type("ROSTER"), 10_000), "lobby never loaded");
+        }
+
+        // baza koja je zastala: dvostruko više sporih poslova nego konekcija (20), pa se stvori i red
+        dbDelayMs = DB_DELAY_MS;
+        List<CompletableFuture<Void>> stalled = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            stalled.add(DbExecutor.run(() -> Thread.sleep(DB_DELAY_MS)));
+        }
+
+        // nove igre čekaju kviz iz baze, ali poruka koja ih pokreće ne smije čekati s njom
+        List<FakeSession> waiting = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int room = 0; room < ROOMS; room++) {
+            String pin = gamePin(ROOMS + room);
+            FakeSession host = connect(pin, "host");
+            waiting.add(connect(pin, "igrac"));
+            game.onMessage("{\"type\":\"START_QUESTIONS\",\"quizId\":\"1\"}", host.session);
+        }
+
+        List<Long> latencies = new ArrayList<>();
+        for (List<FakeSession> players : rooms) {
+            for (FakeSession player : players) {
+                long sentAt = System.nanoTime();
+                game.onMessage("{\"type\":\"SUBMIT_ANSWER\",\"questionId\":\"1\",\"answerId\":\""
+                        + TestQuizzes.correctAnswer(1) + "\"}", player.session);
+                FakeSession.Sent reply = player.await(FakeSession.type("ANSWER_RECEIVED"), DB_DELAY_MS);
+                assertNotNull(reply, "answer waited for the database");
+                latencies.add(reply.atNanos - sentAt);
+            }
+        }
+        for (int lobby = 0; lobby < ROOMS; lobby++) {
+            for (int i = 0; i < PLAYERS_PER_ROOM; i++) {
+                FakeSession player = openLobby(lobbyPin(lobby));
+                assertNotNull(player.await(FakeSession.type("ROSTER"), DB_DELAY_MS), "roster waited for the database");
+                long sentAt = System.nanoTime();
+                String name = "igrac-" + i;
+                join.onMessage("{\"type\":\"JOIN\",\"name\":\"" + name + "\"}", player.session);
+                FakeSession.Sent reply = player.await(
+                        text -> text.startsWith("{\"type\":\"JOIN\"") && text.contains("\"name\":\"" + name + "\""),
+                        DB_DELAY_MS);
+                assertNotNull(reply, "join waited for the database");
+                latencies.add(reply.atNanos - sentAt);
+            }
+        }
+
+        long handledAfterMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        assertTrue(handledAfterMs < DB_DELAY_MS, "handling waited for the database: " + handledAfterMs + " ms");
+        latencies.sort(null);
+        long p99Ms = TimeUnit.NANOSECONDS.toMillis(latencies.get((int) (latencies.size() * 0.99)));
+        assertTrue(p99Ms < 200, "p99 ANSWER_RECEIVED/JOIN latency " + p99Ms + " ms");
+
+        // kad baza proradi, kviz stigne i do soba koje su ga čekale
+        for (FakeSession player : waiting) {
+            assertNotNull(player.await(FakeSession.type("FIRST_QUESTION"), 30_000), "quiz never reached the room");
+        }
+        CompletableFuture.allOf(stalled.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+    }
+
+    private List<FakeSession> startRoom(String pin) {
+        FakeSession host = connect(pin, "host");
+        List<FakeSession> players = new ArrayList<>(PLAYERS_PER_ROOM);
+        for (int i = 0; i < PLAYERS_PER_ROOM; i++) {
+            players.add(connect(pin, "igrac-" + i));
+        }
+        game.onMessage("{\"type\":\"START_QUESTIONS\",\"quizId\":\"1\"}", host.session);
+        return players;
+    }
+
+    private FakeSession connect(String pin, String participantId) {
+        FakeSession socket = new FakeSession("/trivia/playingQuiz/" + pin + "/" + participantId + "/1");
+        game.onOpen(socket.session, pin, participantId);
+        return socket;
+    }
+
+    private FakeSession openLobby(String pin) {
+        FakeSession socket = new FakeSession("/trivia/joinQuizSocket/" + pin);
+        join.onOpen(socket.session, pin);
+        return socket;
+    }
+
+    private <T> CompletableFuture<T> slowDb(Callable<T> query) {
+        return DbExecutor.supply(() -> {
+            Thread.sleep(dbDelayMs);
+            return query.call();
+        });
+    }
+
+    private static String gamePin(int index) {
+        return String.valueOf(910_000 + index);
+    }
+
+    private static String lobbyPin(int index) {
+        return String.valueOf(920_000 + index);
+    }
+}
@@ -0,0 +1,45 @@
+package servlets;
+
+import model.Answer;
+import model.CompiledQuiz;
+import model.Question;
+import model.QuestionType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// kvizovi za testove soba, bez baze: svako pitanje ima odgovore id*10+1 (tačan) i id*10+2
+final class TestQuizzes {
+
+    private TestQuizzes() {
+    }
+
+    static CompiledQuiz choiceQuiz(long quizId, int questionCount) {
+        List<Question> questions = new ArrayList<>(questionCount);
+        for (int i = 1; i <= questionCount; i++) {
+            Question question = new Question("Pitanje " + i, null, i);
+            question.setId((long) i);
+            question.setQuestionType(QuestionType.MULTIPLE_CHOICE);
+            question.setPoints(100);
+            question.setTimeLimit(30);
+            question.getAnswers().add(answer(question, i * 10L + 1, true));
+            question.getAnswers().add(answer(question, i * 10L + 2, false));
+            questions.add(question);
+        }
+        return CompiledQuiz.compile(quizId, 1, questions);
+    }
+
+    static long correctAnswer(long questionId) {
+        return questionId * 10 + 1;
+    }
+
+    static long wrongAnswer(long questionId) {
+        return questionId * 10 + 2;
+    }
+
+    private static Answer answer(Question question, long id, boolean correct) {
+        Answer answer = new Answer("Odgovor " + id, question, (int) (id % 10), correct);
+        answer.setId(id);
+        return answer;
+    }
+}
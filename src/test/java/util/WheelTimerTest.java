@@ -0,0 +1,96 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WheelTimerTest {
+
+    private final WheelTimer timer = WheelTimer.shared();
+
+    @Test
+    void firesAfterTheDelay() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicLong firedAt = new AtomicLong();
+        long scheduledAt = System.nanoTime();
+
+        timer.schedule(() -> {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+        }, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS), "task did not run");
+        assertTrue(firedAt.get() - scheduledAt >= TimeUnit.MILLISECONDS.toNanos(100), "task ran early");
+    }
+
+    @Test
+    void cancelledTaskNeverRuns() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        WheelTimer.Timeout timeout = timer.schedule(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel(), "second cancel");
+
+        Thread.sleep(200);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void cancelAfterRunReturnsFalse() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        WheelTimer.Timeout timeout = timer.schedule(fired::countDown, 0, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheWheel() throws InterruptedException {
+        timer.schedule(() -> {
+            throw new IllegalStateException("expected by the test");
+        }, 0, TimeUnit.MILLISECONDS);
+        CountDownLatch fired = new CountDownLatch(1);
+        timer.schedule(fired::countDown, 30, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fixedRateRepeatsUntilCancelled() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch threeRuns = new CountDownLatch(3);
+        WheelTimer.Timeout timeout = timer.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            threeRuns.countDown();
+        }, 0, 30, TimeUnit.MILLISECONDS);
+
+        assertTrue(threeRuns.await(2, TimeUnit.SECONDS));
+        assertTrue(timeout.cancel());
+        Thread.sleep(50);
+        int afterCancel = runs.get();
+        Thread.sleep(200);
+        assertEquals(afterCancel, runs.get(), "ran after cancel");
+    }
+
+    // dulje od jednog kruga točka (512 pretinaca po 10 ms), pa mora sačekati dodatni krug
+    @Test
+    void delayLongerThanOneRoundWaitsForIt() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long scheduledAt = System.nanoTime();
+        AtomicLong firedAt = new AtomicLong();
+        timer.schedule(() -> {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+        }, 6, TimeUnit.SECONDS);
+
+        assertTrue(fired.await(10, TimeUnit.SECONDS), "task did not run");
+        assertTrue(firedAt.get() - scheduledAt >= TimeUnit.SECONDS.toNanos(6), "task ran a round early");
+    }
+}